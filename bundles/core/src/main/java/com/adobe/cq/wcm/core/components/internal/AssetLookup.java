@@ -0,0 +1,109 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+
+import com.day.cq.dam.api.Asset;
+
+/**
+ * Request scoped lookup of DAM assets, which memoizes the resolution of asset paths to {@link Asset}s, as well as the asset metadata
+ * values read through it, so that components rendered during the same request (e.g. all the images of a page) resolve each asset only
+ * once. The lookup is stored as a request attribute and is therefore shared by the included requests. Like the request, the lookup is
+ * not thread-safe.
+ */
+public final class AssetLookup {
+
+    private static final String REQUEST_ATTRIBUTE = AssetLookup.class.getName();
+
+    private final ResourceResolver resourceResolver;
+    private final Map<String, Asset> assets = new HashMap<>();
+    private final Map<String, Map<String, String>> metadata = new HashMap<>();
+
+    private AssetLookup(@Nonnull ResourceResolver resourceResolver) {
+        this.resourceResolver = resourceResolver;
+    }
+
+    /**
+     * Returns the asset lookup of the provided {@code request}, creating it if the request doesn't have one yet.
+     *
+     * @param request the current request
+     * @return the request's asset lookup
+     */
+    @Nonnull
+    public static AssetLookup get(@Nonnull SlingHttpServletRequest request) {
+        Object attribute = request.getAttribute(REQUEST_ATTRIBUTE);
+        ResourceResolver resourceResolver = request.getResourceResolver();
+        if (attribute instanceof AssetLookup && ((AssetLookup) attribute).resourceResolver == resourceResolver) {
+            return (AssetLookup) attribute;
+        }
+        AssetLookup assetLookup = new AssetLookup(resourceResolver);
+        request.setAttribute(REQUEST_ATTRIBUTE, assetLookup);
+        return assetLookup;
+    }
+
+    /**
+     * Returns the asset found at {@code path}.
+     *
+     * @param path the path of the asset
+     * @return the asset, or {@code null} if the path doesn't point to an asset
+     */
+    @CheckForNull
+    public Asset getAsset(@Nullable String path) {
+        if (StringUtils.isEmpty(path)) {
+            return null;
+        }
+        if (assets.containsKey(path)) {
+            return assets.get(path);
+        }
+        Asset asset = null;
+        Resource resource = resourceResolver.getResource(path);
+        if (resource != null) {
+            asset = resource.adaptTo(Asset.class);
+        }
+        assets.put(path, asset);
+        return asset;
+    }
+
+    /**
+     * Returns the value of the metadata property {@code name} of the provided {@code asset}.
+     *
+     * @param asset the asset
+     * @param name  the name of the metadata property
+     * @return the metadata value, or {@code null} if the asset doesn't define it
+     * @see Asset#getMetadataValue(String)
+     */
+    @CheckForNull
+    public String getMetadataValue(@Nonnull Asset asset, @Nonnull String name) {
+        Map<String, String> values = metadata.computeIfAbsent(asset.getPath(), path -> new HashMap<>());
+        if (values.containsKey(name)) {
+            return values.get(name);
+        }
+        String value = asset.getMetadataValue(name);
+        values.put(name, value);
+        return value;
+    }
+}
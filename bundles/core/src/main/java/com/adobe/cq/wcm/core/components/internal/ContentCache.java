@@ -0,0 +1,182 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A bounded, least recently used cache of values computed from repository content, shared by the caches and indexes invalidated by
+ * resource change events.
+ * <p>
+ * The cache keeps a generation, incremented every time entries are invalidated: values computed while the content they were read from
+ * was changing are not cached, since the invalidation might have happened before they were stored. A value is therefore stored with
+ * the generation read before it was computed (see {@link #getGeneration()} and {@link #put(Object, Object, long)}), or loaded through
+ * {@link #get(Object, Supplier)}, which does that already.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class ContentCache<K, V> {
+
+    private final Map<K, V> entries;
+    private long generation;
+
+    /**
+     * @param maxSize the maximum number of entries kept in the cache, the least recently used ones being evicted first
+     */
+    public ContentCache(int maxSize) {
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for the {@code key}.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null} if there's none
+     */
+    @CheckForNull
+    public synchronized V get(@Nonnull K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Returns the value cached for the {@code key}, computing it through the {@code loader} if it was not already cached. The loader
+     * is called without holding any lock, so concurrent misses for the same key may compute the value more than once.
+     *
+     * @param key    the key
+     * @param loader computes the value
+     * @return the value
+     */
+    @Nonnull
+    public V get(@Nonnull K key, @Nonnull Supplier<V> loader) {
+        V value = get(key);
+        if (value == null) {
+            long valueGeneration = getGeneration();
+            value = loader.get();
+            put(key, value, valueGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value cached for the {@code key}, atomically creating it through the {@code factory} if it was not already cached.
+     * Meant for values which are cheap to create and fill themselves lazily, since the factory is called while holding the cache's
+     * lock.
+     *
+     * @param key     the key
+     * @param factory creates the value
+     * @return the value
+     */
+    @Nonnull
+    public synchronized V computeIfAbsent(@Nonnull K key, @Nonnull Function<K, V> factory) {
+        return entries.computeIfAbsent(key, factory);
+    }
+
+    /**
+     * Returns the current generation of the cache, to be passed to {@link #put(Object, Object, long)} once the value read after this
+     * call was computed.
+     *
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches the {@code value}, unless entries were invalidated since the {@code valueGeneration} was read.
+     *
+     * @param key             the key
+     * @param value           the value
+     * @param valueGeneration the generation read before the value was computed
+     * @return {@code true} if the value was cached, {@code false} otherwise
+     */
+    public synchronized boolean put(@Nonnull K key, @Nonnull V value, long valueGeneration) {
+        // don't cache values which might have been computed from content changed in the meantime
+        if (valueGeneration == generation) {
+            entries.put(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Caches the {@code value} unconditionally, for values which are validated when they are read.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public synchronized void put(@Nonnull K key, @Nonnull V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Removes the value cached for the {@code key}.
+     *
+     * @param key the key
+     */
+    public synchronized void remove(@Nonnull K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the entries matching the {@code predicate} and starts a new generation.
+     *
+     * @param predicate selects the entries to remove
+     */
+    public synchronized void invalidate(@Nonnull BiPredicate<K, V> predicate) {
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, V> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue())) {
+                iterator.remove();
+            }
+        }
+        generation++;
+    }
+
+    /**
+     * Removes all the entries and starts a new generation.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Returns a snapshot of the cached values, which can be used without holding the cache's lock.
+     *
+     * @return the cached values
+     */
+    @Nonnull
+    public synchronized List<V> values() {
+        return new ArrayList<>(entries.values());
+    }
+}
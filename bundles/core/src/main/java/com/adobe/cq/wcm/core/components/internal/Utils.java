@@ -15,16 +15,26 @@
  ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
 package com.adobe.cq.wcm.core.components.internal;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.JcrConstants;
 import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.observation.ResourceChange;
 
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 
 public class Utils {
 
+    private static final String CONTENT_PATH_SEGMENT = "/" + JcrConstants.JCR_CONTENT;
+
     private Utils() {
     }
 
@@ -58,8 +68,119 @@ public class Utils {
      */
     @Nonnull
     public static String getURL(@Nonnull SlingHttpServletRequest request, @Nonnull Page page) {
-        String vanityURL = page.getVanityUrl();
-        return StringUtils.isEmpty(vanityURL) ? request.getContextPath() + page.getPath() + ".html" : request.getContextPath() + vanityURL;
+        return getURL(request, page.getPath(), page.getVanityUrl());
+    }
+
+    /**
+     * Returns the URL of the page at {@code path}, taking into account its {@code vanityURL}, if any, without resolving the page.
+     *
+     * @param request   the current request, used to determine the server's context path
+     * @param path      the path of the page
+     * @param vanityURL the vanity URL of the page, or {@code null}
+     * @return the URL of the page
+     */
+    @Nonnull
+    public static String getURL(@Nonnull SlingHttpServletRequest request, @Nonnull String path, @Nullable String vanityURL) {
+        return StringUtils.isEmpty(vanityURL) ? request.getContextPath() + path + ".html" : request.getContextPath() + vanityURL;
+    }
+
+    /**
+     * Checks if the resource at {@code path} is the resource at {@code ancestorPath} or one of its descendants.
+     *
+     * @param path         the path to check
+     * @param ancestorPath the path of the ancestor
+     * @return {@code true} if {@code path} is {@code ancestorPath} or one of its descendants, {@code false} otherwise
+     */
+    public static boolean isSameOrDescendant(@Nonnull String path, @Nonnull String ancestorPath) {
+        return path.equals(ancestorPath) || path.startsWith(ancestorPath + "/");
+    }
+
+    /**
+     * Checks if the resources at the two paths are on the same branch of the resource tree, i.e. if a change of one of them (e.g.
+     * its removal) may affect the other one.
+     *
+     * @param path      a path
+     * @param otherPath another path
+     * @return {@code true} if one of the paths is the other one or one of its descendants, {@code false} otherwise
+     */
+    public static boolean isOnSameBranch(@Nonnull String path, @Nonnull String otherPath) {
+        return isSameOrDescendant(path, otherPath) || isSameOrDescendant(otherPath, path);
+    }
+
+    /**
+     * Checks if the resource at {@code path} is one of the resources at {@code ancestorPaths} or one of their descendants.
+     *
+     * @param path          the path to check
+     * @param ancestorPaths the paths of the ancestors
+     * @return {@code true} if {@code path} is one of the {@code ancestorPaths} or one of their descendants, {@code false} otherwise
+     */
+    public static boolean isSameOrDescendant(@Nonnull String path, @Nonnull Collection<String> ancestorPaths) {
+        for (String ancestorPath : ancestorPaths) {
+            if (isSameOrDescendant(path, ancestorPath)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    /**
+     * Checks if one of the resources at {@code paths} is on the same branch of the resource tree as the resource at {@code otherPath}.
+     *
+     * @param paths     the paths
+     * @param otherPath another path
+     * @return {@code true} if one of the {@code paths} is on the same branch as {@code otherPath}, {@code false} otherwise
+     * @see #isOnSameBranch(String, String)
+     */
+    public static boolean isOnSameBranch(@Nonnull Collection<String> paths, @Nonnull String otherPath) {
+        for (String path : paths) {
+            if (isOnSameBranch(path, otherPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distinct paths of a batch of resource changes, allowing the listeners of the changes to invalidate their cached
+     * entries in a single pass per batch instead of one pass per change.
+     *
+     * @param changes the resource changes
+     * @return the changed paths
+     */
+    @Nonnull
+    public static Set<String> getChangedPaths(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = new HashSet<>();
+        for (ResourceChange change : changes) {
+            paths.add(change.getPath());
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the index of the {@code jcr:content} segment of {@code path}, if the path is the path of the content resource of a page
+     * or of one of its descendants.
+     *
+     * @param path the path
+     * @return the index of the {@code /jcr:content} segment, or {@code -1} if the path doesn't contain such a segment
+     */
+    public static int getContentSegmentIndex(@Nonnull String path) {
+        int contentIndex = path.indexOf(CONTENT_PATH_SEGMENT + "/");
+        if (contentIndex < 0 && path.endsWith(CONTENT_PATH_SEGMENT)) {
+            contentIndex = path.length() - CONTENT_PATH_SEGMENT.length();
+        }
+        return contentIndex;
+    }
+
+    /**
+     * Returns the path of the page containing the resource at {@code path}, assuming that the resource is a page or a resource of a
+     * page's content.
+     *
+     * @param path the path of the resource
+     * @return the path of the containing page
+     */
+    @Nonnull
+    public static String getContainingPagePath(@Nonnull String path) {
+        int contentIndex = getContentSegmentIndex(path);
+        return contentIndex >= 0 ? path.substring(0, contentIndex) : path;
+    }
 }
@@ -0,0 +1,100 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.ResourceResolver;
+
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Finds the descendant pages of a list's parent page through a JCR-SQL2 query, instead of walking the page tree. The query is
+ * restricted to the parent page's subtree. Since JCR-SQL2 cannot restrict the depth of the results, the pages found below the list's
+ * child depth are skipped.
+ * <p>
+ * The results are delivered in the index's order, which is neither the order of the page tree nor the order of the list: the
+ * repository's ordering of titles differs from the list's collation and dates may be missing. All the results are therefore read and
+ * ordered by the {@link PageCollector}; the results are only read partially when the collector is {@linkplain PageCollector#isFull()
+ * full}, i.e. for unordered lists whose pages may be listed in the index's order.
+ */
+public final class ChildPagesQuery {
+
+    private final String parentPath;
+    private final int childDepth;
+
+    /**
+     * @param parentPath the path of the list's parent page
+     * @param childDepth the depth, relative to the parent page, down to which pages are listed
+     */
+    public ChildPagesQuery(@Nonnull String parentPath, int childDepth) {
+        this.parentPath = parentPath;
+        this.childDepth = childDepth;
+    }
+
+    /**
+     * @return the JCR-SQL2 statement of the query
+     */
+    @Nonnull
+    String getStatement() {
+        return "SELECT [jcr:path] FROM [" + NameConstants.NT_PAGE + "] AS page WHERE ISDESCENDANTNODE(page, '" +
+                parentPath.replace("'", "''") + "')";
+    }
+
+    /**
+     * Runs the query and adds the found pages to the {@code collector}.
+     *
+     * @param resourceResolver the resource resolver used to run the query
+     * @param collector        the collector of the list's pages
+     * @throws RepositoryException if the query cannot be run
+     */
+    public void collect(@Nonnull ResourceResolver resourceResolver, @Nonnull PageCollector collector) throws RepositoryException {
+        QueryManager queryManager = getQueryManager(resourceResolver);
+        PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
+        if (queryManager == null || pageManager == null) {
+            return;
+        }
+        NodeIterator nodes = queryManager.createQuery(getStatement(), Query.JCR_SQL2).execute().getNodes();
+        while (nodes.hasNext() && !collector.isFull()) {
+            String path = nodes.nextNode().getPath();
+            if (isWithinDepth(path)) {
+                Page page = pageManager.getPage(path);
+                if (page != null) {
+                    collector.add(page);
+                }
+            }
+        }
+    }
+
+    private boolean isWithinDepth(@Nonnull String path) {
+        return path.startsWith(parentPath + "/") && StringUtils.countMatches(path.substring(parentPath.length()), "/") <= childDepth;
+    }
+
+    @CheckForNull
+    private QueryManager getQueryManager(@Nonnull ResourceResolver resourceResolver) throws RepositoryException {
+        Session session = resourceResolver.adaptTo(Session.class);
+        return session != null ? session.getWorkspace().getQueryManager() : null;
+    }
+}
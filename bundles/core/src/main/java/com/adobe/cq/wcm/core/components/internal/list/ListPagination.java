@@ -0,0 +1,226 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.jackrabbit.util.Text;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Identifies the page of a list's items requested by a client. The page is defined by an offset and a limit, which can be passed as
+ * selectors (e.g. {@code list.offset-20.limit-10.json}, which allows the pages to be cached by the dispatcher) or as request
+ * parameters. Since the parameters of a request are shared by all the lists rendered by it, the parameters are prefixed with the
+ * {@linkplain #getParameterPrefix(Resource) list's prefix} (e.g. {@code page.html?list-4d2-offset=20&list-4d2-limit=10}). Requests
+ * without a limit are not paginated. Clients don't need to build these URLs: the {@linkplain #getNextUrl(SlingHttpServletRequest,
+ * Resource) URL of the next page} is provided with each page.
+ */
+public final class ListPagination {
+
+    static final String PARAM_OFFSET = "offset";
+    static final String PARAM_LIMIT = "limit";
+    private static final String SELECTOR_SEPARATOR = "-";
+    private static final String PARAMETER_PREFIX = "list";
+
+    /**
+     * The maximum number of items collected to provide a page, which bounds the work done for requests with large offsets or limits;
+     * the items following this number cannot be paged through.
+     */
+    static final int MAX_PAGED_ITEMS = 10000;
+
+    private static final ListPagination UNPAGED = new ListPagination(0, 0);
+
+    private final int offset;
+    private final int limit;
+
+    private ListPagination(int offset, int limit) {
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Reads the requested page from the selectors of the {@code request} and from its parameters addressed to the list.
+     *
+     * @param request  the request rendering the list
+     * @param resource the list's resource
+     * @return the requested page
+     */
+    @Nonnull
+    public static ListPagination fromRequest(@Nonnull SlingHttpServletRequest request, @Nonnull Resource resource) {
+        String prefix = getParameterPrefix(resource);
+        String offset = request.getParameter(prefix + PARAM_OFFSET);
+        String limit = request.getParameter(prefix + PARAM_LIMIT);
+        for (String selector : request.getRequestPathInfo().getSelectors()) {
+            String name = StringUtils.substringBefore(selector, SELECTOR_SEPARATOR);
+            String value = StringUtils.substringAfter(selector, SELECTOR_SEPARATOR);
+            if (PARAM_OFFSET.equals(name)) {
+                offset = value;
+            } else if (PARAM_LIMIT.equals(name)) {
+                limit = value;
+            }
+        }
+        int pageLimit = NumberUtils.toInt(limit, 0);
+        if (pageLimit <= 0) {
+            return UNPAGED;
+        }
+        return new ListPagination(Math.max(NumberUtils.toInt(offset, 0), 0), pageLimit);
+    }
+
+    /**
+     * Returns the prefix of the request parameters addressed to a list, which identifies the list among the components rendered by
+     * the request.
+     *
+     * @param resource the list's resource
+     * @return the prefix of the list's parameters
+     */
+    @Nonnull
+    public static String getParameterPrefix(@Nonnull Resource resource) {
+        return PARAMETER_PREFIX + SELECTOR_SEPARATOR + Integer.toHexString(resource.getPath().hashCode()) + SELECTOR_SEPARATOR;
+    }
+
+    /**
+     * @return {@code true} if a page of the list's items was requested, {@code false} if all the items were requested
+     */
+    public boolean isPaged() {
+        return limit > 0;
+    }
+
+    /**
+     * @return the index of the first requested item
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of requested items, or {@code 0} if the list isn't paginated
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of items which need to be collected from the list's source to provide the requested page and to find out if
+     * more items follow it, capped at {@link #MAX_PAGED_ITEMS} (plus the item telling if more items follow).
+     *
+     * @param maxItems the maximum number of items of the list, or {@code 0} if the list is not limited
+     * @return the number of items to collect, or {@code 0} to collect all the items
+     */
+    public int getMaxItems(int maxItems) {
+        if (!isPaged()) {
+            return maxItems;
+        }
+        int pageEnd = (int) Math.min((long) offset + limit, MAX_PAGED_ITEMS) + 1;
+        return maxItems > 0 ? Math.min(maxItems, pageEnd) : pageEnd;
+    }
+
+    /**
+     * @param size the number of items of the list
+     * @return the index of the first item of the requested page
+     */
+    public int getStart(int size) {
+        return Math.min(offset, size);
+    }
+
+    /**
+     * @param size the number of items of the list
+     * @return the index following the last item of the requested page
+     */
+    public int getEnd(int size) {
+        return isPaged() ? (int) Math.min((long) offset + limit, size) : size;
+    }
+
+    /**
+     * @param size the number of items of the list
+     * @return {@code true} if the list is paginated and more items follow the requested page
+     */
+    public boolean hasMore(int size) {
+        return isPaged() && (long) offset + limit < size;
+    }
+
+    /**
+     * @return the offset of the page which follows the requested page
+     */
+    public int getNextOffset() {
+        return (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the URL of the page which follows the requested page. The URL is the URL of the current request, with the pagination
+     * selectors if the list is requested directly (e.g. {@code list.offset-20.limit-10.json}) or if the current page was requested
+     * through selectors, and with the list's pagination parameters otherwise (e.g. {@code page.html?list-4d2-offset=20&list-4d2-limit=10}).
+     *
+     * @param request  the request rendering the list
+     * @param resource the list's resource
+     * @return the URL of the next page
+     */
+    @Nonnull
+    public String getNextUrl(@Nonnull SlingHttpServletRequest request, @Nonnull Resource resource) {
+        RequestPathInfo pathInfo = request.getRequestPathInfo();
+        String resourcePath = StringUtils.defaultIfEmpty(pathInfo.getResourcePath(), request.getResource().getPath());
+        boolean selectorPaging = resource.getPath().equals(resourcePath);
+        List<String> selectors = new ArrayList<>();
+        for (String selector : pathInfo.getSelectors()) {
+            String name = StringUtils.substringBefore(selector, SELECTOR_SEPARATOR);
+            if (PARAM_OFFSET.equals(name) || PARAM_LIMIT.equals(name)) {
+                selectorPaging = true;
+            } else {
+                selectors.add(selector);
+            }
+        }
+        if (selectorPaging) {
+            selectors.add(PARAM_OFFSET + SELECTOR_SEPARATOR + getNextOffset());
+            selectors.add(PARAM_LIMIT + SELECTOR_SEPARATOR + limit);
+        }
+        StringBuilder url = new StringBuilder(request.getContextPath()).append(Text.escapePath(resourcePath));
+        for (String selector : selectors) {
+            url.append('.').append(selector);
+        }
+        if (StringUtils.isNotEmpty(pathInfo.getExtension())) {
+            url.append('.').append(pathInfo.getExtension());
+        }
+        if (StringUtils.isNotEmpty(pathInfo.getSuffix())) {
+            url.append(Text.escapePath(pathInfo.getSuffix()));
+        }
+        String prefix = getParameterPrefix(resource);
+        List<String> parameters = new ArrayList<>();
+        for (Map.Entry<String, RequestParameter[]> parameter : request.getRequestParameterMap().entrySet()) {
+            String name = parameter.getKey();
+            if (!name.equals(prefix + PARAM_OFFSET) && !name.equals(prefix + PARAM_LIMIT)) {
+                for (RequestParameter value : parameter.getValue()) {
+                    parameters.add(Text.escape(name) + "=" + Text.escape(value.getString()));
+                }
+            }
+        }
+        if (!selectorPaging) {
+            parameters.add(prefix + PARAM_OFFSET + "=" + getNextOffset());
+            parameters.add(prefix + PARAM_LIMIT + "=" + limit);
+        }
+        if (!parameters.isEmpty()) {
+            url.append('?').append(StringUtils.join(parameters, '&'));
+        }
+        return url.toString();
+    }
+}
@@ -0,0 +1,201 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+
+/**
+ * Caches the results of the list components, i.e. the paths of the pages found by a list's source, so that the source doesn't have to
+ * be evaluated again on every render. Only paths are cached, since pages are bound to the resource resolver used to retrieve them; the
+ * results are cached per component, component properties, policy and user.
+ * <p>
+ * Each result records the paths watched by its source (e.g. the parent page of a children list or the search root of a search list):
+ * a result is evicted as soon as a resource is changed under one of its watched paths and, for the tag lists, as soon as a tag is
+ * changed.
+ */
+@Component(
+        service = {ListResultCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.PATHS + "=" + ListResultCache.LEGACY_TAGS_ROOT,
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class ListResultCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    static final String LEGACY_TAGS_ROOT = "/etc/tags";
+    static final String TAGS_ROOT = "/content/cq:tags";
+    private static final int MAX_CACHED_RESULTS = 1000;
+
+    private final ContentCache<Key, Result> results = new ContentCache<>(MAX_CACHED_RESULTS);
+
+    /**
+     * Returns the result of a list's source, evaluating the source through the {@code loader} if its result was not already cached.
+     *
+     * @param key    the key of the list
+     * @param loader evaluates the list's source
+     * @return the list's result
+     */
+    @Nonnull
+    public Result getResult(@Nonnull Key key, @Nonnull Supplier<Result> loader) {
+        return results.get(key, loader);
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        boolean tagChange = containsTagPath(paths);
+        results.invalidate((key, result) -> (tagChange && result.watchesTags) || result.isWatching(paths));
+    }
+
+    /**
+     * Checks if the resource at {@code path} is a tag or a tag namespace.
+     */
+    static boolean isTagPath(@Nonnull String path) {
+        return Utils.isSameOrDescendant(path, LEGACY_TAGS_ROOT) || Utils.isSameOrDescendant(path, TAGS_ROOT);
+    }
+
+    /**
+     * Checks if one of the resources at {@code paths} is a tag or a tag namespace.
+     */
+    static boolean containsTagPath(@Nonnull Set<String> paths) {
+        for (String path : paths) {
+            if (isTagPath(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifies the result of a list component.
+     */
+    public static final class Key {
+        private final String componentPath;
+        private final String propertiesFingerprint;
+        private final String policyPath;
+        private final String userId;
+        private final int collectedItems;
+
+        /**
+         * @param componentPath         the path of the list component
+         * @param propertiesFingerprint a representation of all the settings that determine the list's result (e.g. the component's
+         *                              properties and the current page)
+         * @param policyPath            the path of the component's policy, if any
+         * @param userId                the ID of the user for which the list is rendered
+         * @param collectedItems        the maximum number of items collected from the list's source, or {@code 0} if all the items
+         *                              are collected
+         */
+        public Key(@Nonnull String componentPath, @Nonnull String propertiesFingerprint, @Nullable String policyPath,
+                   @Nullable String userId, int collectedItems) {
+            this.componentPath = componentPath;
+            this.propertiesFingerprint = propertiesFingerprint;
+            this.policyPath = StringUtils.defaultString(policyPath);
+            this.userId = StringUtils.defaultString(userId);
+            this.collectedItems = collectedItems;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return collectedItems == key.collectedItems && componentPath.equals(key.componentPath) &&
+                    propertiesFingerprint.equals(key.propertiesFingerprint) && policyPath.equals(key.policyPath) &&
+                    userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(componentPath, propertiesFingerprint, policyPath, userId, collectedItems);
+        }
+    }
+
+    /**
+     * The result of a list component.
+     */
+    public static final class Result {
+        private final List<String> pagePaths;
+        private final Integer sourceSize;
+        private final List<String> watchedPaths;
+        private final boolean watchesTags;
+
+        /**
+         * @param pagePaths    the paths of the list's pages, in the list's order
+         * @param sourceSize   the number of items of the list's source, or {@code null} if the source was not read entirely
+         * @param watchedPaths the paths under which changes affect the result
+         * @param watchesTags  {@code true} if tag changes affect the result
+         */
+        public Result(@Nonnull Collection<String> pagePaths, @Nullable Integer sourceSize, @Nonnull Collection<String> watchedPaths,
+                      boolean watchesTags) {
+            this.pagePaths = Collections.unmodifiableList(new ArrayList<>(pagePaths));
+            this.sourceSize = sourceSize;
+            this.watchedPaths = new ArrayList<>(watchedPaths);
+            this.watchesTags = watchesTags;
+        }
+
+        /**
+         * @return the paths of the list's pages, in the list's order
+         */
+        @Nonnull
+        public List<String> getPagePaths() {
+            return pagePaths;
+        }
+
+        /**
+         * @return the number of items of the list's source, or {@code null} if the source was not read entirely
+         */
+        @CheckForNull
+        public Integer getSourceSize() {
+            return sourceSize;
+        }
+
+        private boolean isWatching(@Nonnull Set<String> paths) {
+            for (String watchedPath : watchedPaths) {
+                // changes below the watched path change the list, while changes above it may remove the watched path
+                if (Utils.isOnSameBranch(paths, watchedPath)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Collects the pages of a list component, keeping only the pages that will be rendered. When the list is limited to a maximum number
+ * of items, the collector holds at most that many pages: without an order, the first pages are kept and the collector reports being
+ * {@linkplain #isFull() full} as soon as they were collected, so that the list's source can stop looking for more pages; with an order,
+ * the collector keeps the best pages found so far in a bounded heap. The memory and the sorting effort therefore depend on the maximum
+ * number of items, not on the number of pages found by the source.
+ * <p>
+ * The pages are ordered by {@link PageSortKey}s, which are computed once per collected page. Pages with equal keys keep the order in
+ * which they were collected, like with a stable sort of all the pages.
+ */
+public final class PageCollector {
+
+    /**
+     * The initial capacity of the heap, which then grows with the collected pages, so that the memory doesn't depend on a maximum
+     * number of items which is never reached.
+     */
+    private static final int INITIAL_HEAP_CAPACITY = 64;
+
+    private final int maxItems;
+    private final Function<Page, PageSortKey> sortKeys;
+    private final Comparator<Entry> comparator;
+    private final List<Entry> entries = new ArrayList<>();
+    private final PriorityQueue<Entry> heap;
+    private long sequence;
+
+    /**
+     * @param maxItems   the maximum number of pages to keep, or {@code 0} to keep all the pages
+     * @param sortKeys   computes the keys by which the pages are ordered, or {@code null} to keep the pages in the order in which they
+     *                   are collected
+     */
+    public PageCollector(int maxItems, @Nullable Function<Page, PageSortKey> sortKeys) {
+        this.maxItems = Math.max(maxItems, 0);
+        this.sortKeys = sortKeys;
+        this.comparator = sortKeys != null ? Comparator.comparing((Entry entry) -> entry.sortKey)
+                .thenComparingLong(entry -> entry.sequence) : null;
+        // the heap's head is the worst of the kept pages, which is replaced when a better page is found
+        this.heap = this.maxItems > 0 && this.comparator != null ? new PriorityQueue<>(
+                Math.min(this.maxItems, INITIAL_HEAP_CAPACITY), this.comparator.reversed()) : null;
+    }
+
+    /**
+     * Adds a page to the collected pages.
+     *
+     * @param page the page
+     */
+    public void add(@Nonnull Page page) {
+        Entry entry = new Entry(page, sortKeys != null ? sortKeys.apply(page) : null, sequence++);
+        if (heap != null) {
+            if (heap.size() < maxItems) {
+                heap.add(entry);
+            } else if (comparator.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        } else if (!isFull()) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Checks if the collector cannot accept any other page, i.e. if the list is not ordered and the maximum number of pages were
+     * already collected.
+     *
+     * @return {@code true} if the source of the list can stop looking for pages, {@code false} otherwise
+     */
+    public boolean isFull() {
+        return maxItems > 0 && comparator == null && entries.size() >= maxItems;
+    }
+
+    /**
+     * @return the number of pages added to the collector, including the pages which were not kept
+     */
+    public long getAddedCount() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of pages currently kept by the collector
+     */
+    public int getCount() {
+        return heap != null ? heap.size() : entries.size();
+    }
+
+    /**
+     * @return the collected pages, in the list's order
+     */
+    @Nonnull
+    public List<Page> getPages() {
+        List<Entry> sorted = heap != null ? new ArrayList<>(heap) : new ArrayList<>(entries);
+        if (comparator != null) {
+            sorted.sort(comparator);
+        }
+        List<Page> pages = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            pages.add(entry.page);
+        }
+        return pages;
+    }
+
+    private static final class Entry {
+        private final Page page;
+        private final PageSortKey sortKey;
+        private final long sequence;
+
+        private Entry(@Nonnull Page page, @Nullable PageSortKey sortKey, long sequence) {
+            this.page = page;
+            this.sortKey = sortKey;
+            this.sequence = sequence;
+        }
+    }
+}
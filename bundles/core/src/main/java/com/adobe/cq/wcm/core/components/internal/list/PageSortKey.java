@@ -0,0 +1,92 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.day.cq.wcm.api.Page;
+
+/**
+ * The key by which a page is sorted in a list, computed once when the page is collected (see {@link PageCollector}), so that sorting
+ * doesn't read the page's properties again for every comparison. Titles are compared through {@link CollationKey}s of a single
+ * {@link Collator} for the language of the list, modification dates as timestamps. Pages without a value are sorted after the pages
+ * with a value, and before them if the order is descending.
+ */
+public final class PageSortKey implements Comparable<PageSortKey> {
+
+    private final boolean missing;
+    private final long timestamp;
+    private final CollationKey title;
+    private final boolean descending;
+
+    private PageSortKey(boolean missing, long timestamp, @Nullable CollationKey title, boolean descending) {
+        this.missing = missing;
+        this.timestamp = timestamp;
+        this.title = title;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns a function computing the keys sorting pages by their title.
+     *
+     * @param locale     the language of the list
+     * @param descending {@code true} to sort the pages descending
+     * @return the function computing the keys
+     */
+    @Nonnull
+    public static Function<Page, PageSortKey> byTitle(@Nonnull Locale locale, boolean descending) {
+        // collation keys can only be compared if they were created by the same collator
+        Collator collator = Collator.getInstance(locale);
+        return page -> {
+            String title = page.getTitle();
+            return new PageSortKey(title == null, 0, title != null ? collator.getCollationKey(title) : null, descending);
+        };
+    }
+
+    /**
+     * Returns a function computing the keys sorting pages by their last modification date.
+     *
+     * @param descending {@code true} to sort the pages descending
+     * @return the function computing the keys
+     */
+    @Nonnull
+    public static Function<Page, PageSortKey> byLastModified(boolean descending) {
+        return page -> {
+            Calendar lastModified = page.getLastModified();
+            return new PageSortKey(lastModified == null, lastModified != null ? lastModified.getTimeInMillis() : 0, null, descending);
+        };
+    }
+
+    @Override
+    public int compareTo(@Nonnull PageSortKey other) {
+        int i;
+        if (missing || other.missing) {
+            i = Boolean.compare(missing, other.missing);
+        } else if (title != null) {
+            i = title.compareTo(other.title);
+        } else {
+            i = Long.compare(timestamp, other.timestamp);
+        }
+        return descending ? -i : i;
+    }
+}
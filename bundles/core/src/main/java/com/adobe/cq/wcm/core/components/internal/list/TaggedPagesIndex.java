@@ -0,0 +1,144 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.commons.RangeIterator;
+import com.day.cq.tagging.TagManager;
+
+/**
+ * Indexes the resources tagged with a tag under a search root, so that the tag lists don't have to run a tag search on every render.
+ * The resources tagged with each tag are searched once per search root and user; lists looking for several tags combine the indexed
+ * resources of each tag. The resources of a search root are evicted as soon as a resource is changed under the root, and all the
+ * resources are evicted as soon as a tag is changed.
+ */
+@Component(
+        service = {TaggedPagesIndex.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.PATHS + "=" + ListResultCache.LEGACY_TAGS_ROOT,
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class TaggedPagesIndex implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final int MAX_CACHED_TAGS = 1000;
+
+    private final ContentCache<Key, List<String>> taggedResources = new ContentCache<>(MAX_CACHED_TAGS);
+
+    /**
+     * Returns the paths of the resources under {@code rootPath} which are tagged with the {@code tagIds}.
+     *
+     * @param resourceResolver the resource resolver used to search the tagged resources
+     * @param rootPath         the search root
+     * @param tagIds           the IDs of the tags
+     * @param matchAny         {@code true} to return the resources tagged with any of the tags, {@code false} to return the resources
+     *                         tagged with all the tags
+     * @return the paths of the tagged resources
+     */
+    @Nonnull
+    public List<String> getTaggedResources(@Nonnull ResourceResolver resourceResolver, @Nonnull String rootPath,
+                                           @Nonnull String[] tagIds, boolean matchAny) {
+        TagManager tagManager = resourceResolver.adaptTo(TagManager.class);
+        if (tagManager == null || tagIds.length == 0) {
+            return Collections.emptyList();
+        }
+        Set<String> resources = new LinkedHashSet<>(getTaggedResources(tagManager, resourceResolver.getUserID(), rootPath, tagIds[0]));
+        for (int i = 1; i < tagIds.length; i++) {
+            List<String> tagResources = getTaggedResources(tagManager, resourceResolver.getUserID(), rootPath, tagIds[i]);
+            if (matchAny) {
+                resources.addAll(tagResources);
+            } else {
+                resources.retainAll(new HashSet<>(tagResources));
+            }
+        }
+        return new ArrayList<>(resources);
+    }
+
+    private List<String> getTaggedResources(TagManager tagManager, String userId, String rootPath, String tagId) {
+        return taggedResources.get(new Key(rootPath, tagId, userId), () -> {
+            List<String> resources = new ArrayList<>();
+            RangeIterator<Resource> iterator = tagManager.find(rootPath, new String[]{tagId}, true);
+            if (iterator != null) {
+                while (iterator.hasNext()) {
+                    resources.add(iterator.next().getPath());
+                }
+            }
+            return Collections.unmodifiableList(resources);
+        });
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        if (ListResultCache.containsTagPath(paths)) {
+            // tags might have been moved or merged
+            taggedResources.invalidateAll();
+        } else {
+            taggedResources.invalidate((key, resources) -> Utils.isOnSameBranch(paths, key.rootPath));
+        }
+    }
+
+    private static final class Key {
+        private final String rootPath;
+        private final String tagId;
+        private final String userId;
+
+        private Key(@Nonnull String rootPath, @Nonnull String tagId, String userId) {
+            this.rootPath = rootPath;
+            this.tagId = tagId;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rootPath.equals(key.rootPath) && tagId.equals(key.tagId) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, tagId, userId);
+        }
+    }
+}
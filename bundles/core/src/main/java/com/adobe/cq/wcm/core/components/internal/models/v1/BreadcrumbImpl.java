@@ -17,7 +17,6 @@ package com.adobe.cq.wcm.core.components.internal.models.v1;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -27,14 +26,20 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChain;
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChainCache;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.Breadcrumb;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.designer.Style;
 
 @Model(adaptables = SlingHttpServletRequest.class,
@@ -62,6 +67,12 @@ public class BreadcrumbImpl implements Breadcrumb {
     @Self
     private SlingHttpServletRequest request;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private AncestorChainCache ancestorChainCache;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private RedirectChainCache redirectChainCache;
+
     private boolean showHidden;
     private boolean hideCurrent;
     private int startLevel;
@@ -90,17 +101,21 @@ public class BreadcrumbImpl implements Breadcrumb {
 
     private List<NavigationItem> createItems() {
         List<NavigationItem> items = new ArrayList<>();
+        AncestorChain ancestorChain = ancestorChainCache != null ? ancestorChainCache.getChain(currentPage) :
+                AncestorChain.build(currentPage);
+        PageManager pageManager = currentPage.getPageManager();
         int currentLevel = currentPage.getDepth();
         while (startLevel < currentLevel) {
-            Page page = currentPage.getAbsoluteParent(startLevel);
-            if (page != null) {
-                boolean isActivePage = page.equals(currentPage);
+            AncestorChain.Ancestor ancestor = ancestorChain.getAncestor(startLevel);
+            if (ancestor != null) {
+                boolean isActivePage = ancestor.getPath().equals(currentPage.getPath());
                 if (isActivePage && hideCurrent) {
                     break;
                 }
-                if (checkIfNotHidden(page)) {
-                    NavigationItem navigationItem = new BreadcrumbItemImpl(page, isActivePage, request, currentLevel, Collections.emptyList());
-                    items.add(navigationItem);
+                if (checkIfNotHidden(ancestor)) {
+                    // the items are built from the cached ancestors; their pages are only resolved if needed
+                    items.add(new BreadcrumbItemImpl(request, pageManager, ancestor, isActivePage ? currentPage : null, isActivePage,
+                            currentLevel, redirectChainCache));
                 }
             }
             startLevel++;
@@ -108,7 +123,7 @@ public class BreadcrumbImpl implements Breadcrumb {
         return items;
     }
 
-    private boolean checkIfNotHidden(Page page) {
-        return !page.isHideInNav() || showHidden;
+    private boolean checkIfNotHidden(AncestorChain.Ancestor ancestor) {
+        return !ancestor.isHideInNav() || showHidden;
     }
 }
@@ -16,19 +16,31 @@
 
 package com.adobe.cq.wcm.core.components.internal.models.v1;
 
-import java.util.List;
+import java.util.Collections;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.apache.sling.api.SlingHttpServletRequest;
 
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChain;
+import com.adobe.cq.wcm.core.components.internal.navigation.CachedNavigationItem;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+/**
+ * A breadcrumb item built from the cached {@link AncestorChain.Ancestor} of the current page; the page is only resolved if needed.
+ */
 @JsonIgnoreProperties(value = {"page", "children", "level", "description", "lastModified", "path"})
-public class BreadcrumbItemImpl extends NavigationItemImpl implements NavigationItem {
+public class BreadcrumbItemImpl extends CachedNavigationItem implements NavigationItem {
 
-    public BreadcrumbItemImpl(Page page, boolean active, SlingHttpServletRequest request, int level, List<NavigationItem> children) {
-        super(page, active, request, level, children);
+    public BreadcrumbItemImpl(@Nonnull SlingHttpServletRequest request, @Nonnull PageManager pageManager,
+                              @Nonnull AncestorChain.Ancestor ancestor, @Nullable Page page, boolean active, int level,
+                              @Nullable RedirectChainCache redirectChainCache) {
+        super(request, pageManager, ancestor, page, active, level, Collections::emptyList, redirectChainCache);
     }
 
 }
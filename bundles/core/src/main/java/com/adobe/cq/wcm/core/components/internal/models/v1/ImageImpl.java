@@ -15,6 +15,7 @@
  ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
 package com.adobe.cq.wcm.core.components.internal.models.v1;
 
+import java.awt.Dimension;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
@@ -40,6 +41,7 @@ import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.Source;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
@@ -48,8 +50,10 @@ import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.AssetLookup;
 import com.adobe.cq.wcm.core.components.internal.Utils;
 import com.adobe.cq.wcm.core.components.internal.servlets.AdaptiveImageServlet;
+import com.adobe.cq.wcm.core.components.internal.servlets.ImageDimensionsProvider;
 import com.adobe.cq.wcm.core.components.models.Image;
 import com.day.cq.commons.DownloadResource;
 import com.day.cq.commons.ImageResource;
@@ -61,6 +65,7 @@ import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.Template;
 import com.day.cq.wcm.api.designer.Style;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 @Model(adaptables = SlingHttpServletRequest.class, adapters = {Image.class, ComponentExporter.class}, resourceType = ImageImpl.RESOURCE_TYPE)
 @Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
@@ -97,6 +102,9 @@ public class ImageImpl implements Image {
     @Source("osgi-services")
     protected MimeTypeService mimeTypeService;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private ImageDimensionsProvider dimensionsProvider;
+
     @ValueMapValue(name = DownloadResource.PN_REFERENCE, injectionStrategy = InjectionStrategy.OPTIONAL)
     protected String fileReference;
 
@@ -125,6 +133,8 @@ public class ImageImpl implements Image {
     protected String baseResourcePath;
     protected String templateRelativePath;
     protected boolean disableLazyLoading;
+    protected int width;
+    protected int height;
 
     public ImageImpl() {
         selector = AdaptiveImageServlet.DEFAULT_SELECTOR;
@@ -143,17 +153,12 @@ public class ImageImpl implements Image {
         Asset asset = null;
         if (StringUtils.isNotEmpty(fileReference)) {
             // the image is coming from DAM
-            final Resource assetResource = request.getResourceResolver().getResource(fileReference);
-            if (assetResource != null) {
-                asset = assetResource.adaptTo(Asset.class);
-                if (asset != null) {
-                    mimeType = PropertiesUtil.toString(asset.getMimeType(), MIME_TYPE_IMAGE_JPEG);
-                    hasContent = true;
-                } else {
-                    LOGGER.error("Unable to adapt resource '{}' used by image '{}' to an asset.", fileReference, resource.getPath());
-                }
+            asset = AssetLookup.get(request).getAsset(fileReference);
+            if (asset != null) {
+                mimeType = PropertiesUtil.toString(asset.getMimeType(), MIME_TYPE_IMAGE_JPEG);
+                hasContent = true;
             } else {
-                LOGGER.error("Unable to find resource '{}' used by image '{}'.", fileReference, resource.getPath());
+                LOGGER.error("Unable to find asset '{}' used by image '{}'.", fileReference, resource.getPath());
             }
         } else {
             Resource file = resource.getChild(DownloadResource.NN_FILE);
@@ -230,6 +235,13 @@ public class ImageImpl implements Image {
                 linkURL = null;
                 alt = null;
             }
+            if (dimensionsProvider != null) {
+                Dimension dimension = dimensionsProvider.getDimensions(resource, AssetLookup.get(request), lastModifiedDate);
+                if (dimension != null) {
+                    width = dimension.width;
+                    height = dimension.height;
+                }
+            }
             buildJson();
         }
     }
@@ -259,6 +271,18 @@ public class ImageImpl implements Image {
         return linkURL;
     }
 
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int getHeight() {
+        return height;
+    }
+
     @Override
     @JsonIgnore
     public String getFileReference() {
@@ -17,8 +17,8 @@ package com.adobe.cq.wcm.core.components.internal.models.v1;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -28,15 +28,19 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.navigation.LanguageNavigationIndex;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTree;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeCache;
 import com.adobe.cq.wcm.core.components.models.LanguageNavigation;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.Page;
-import com.day.cq.wcm.api.PageFilter;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.designer.Style;
 
@@ -61,11 +65,19 @@ public class LanguageNavigationImpl implements LanguageNavigation {
     @ScriptVariable
     private Style currentStyle;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private NavigationTreeCache navigationTreeCache;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private LanguageNavigationIndex languageNavigationIndex;
+
     private String navigationRoot;
     private int structureDepth;
-    private Page rootPage;
     private List<NavigationItem> items;
-    private int startLevel;
+    private int rootPageDepth;
+    private int[] currentPathSeparators;
+    private Set<String> localizedLanguageRoots;
+    private long time;
 
     @PostConstruct
     private void initModel() {
@@ -77,12 +89,17 @@ public class LanguageNavigationImpl implements LanguageNavigation {
     public List<NavigationItem> getItems() {
         if (items == null) {
             PageManager pageManager = currentPage.getPageManager();
-            rootPage = pageManager.getPage(navigationRoot);
+            Page rootPage = pageManager.getPage(navigationRoot);
             if (rootPage != null) {
-                int rootPageLevel = rootPage.getDepth();
-                startLevel = rootPageLevel + 1;
-                structureDepth += rootPageLevel;
-                items = getItems(rootPage);
+                rootPageDepth = rootPage.getDepth();
+                currentPathSeparators = getSeparatorPositions(currentPage.getPath());
+                time = System.currentTimeMillis();
+                if (languageNavigationIndex != null && structureDepth > 0) {
+                    localizedLanguageRoots = languageNavigationIndex.getLanguageRoots(rootPage, structureDepth, currentPage.getPath());
+                }
+                NavigationTree navigationTree = navigationTreeCache != null ?
+                        navigationTreeCache.getTree(rootPage, structureDepth) : NavigationTree.build(rootPage, structureDepth);
+                items = getItems(pageManager, navigationTree.getRoot());
             } else {
                 items = Collections.emptyList();
             }
@@ -96,48 +113,59 @@ public class LanguageNavigationImpl implements LanguageNavigation {
         return request.getResource().getResourceType();
     }
 
-    private List<NavigationItem> getItems(Page root) {
+    private List<NavigationItem> getItems(PageManager pageManager, NavigationTree.Node root) {
         List<NavigationItem> pages = new ArrayList<>();
-        if (root.getDepth() < structureDepth) {
-            Iterator<Page> it = root.listChildren(new PageFilter());
-            while (it.hasNext()) {
-                Page page = it.next();
-                boolean active = currentPage.getPath().equals(page.getPath()) || currentPage.getPath().startsWith(page.getPath() + "/");
-                String title = page.getNavigationTitle();
-                if (title == null) {
-                    title = page.getTitle();
-                }
-                List<NavigationItem> children = getItems(page);
-                int level = page.getDepth() - startLevel;
-                Page localizedPage = getLocalizedPage(currentPage, page);
-                if (localizedPage != null) {
-                    page = localizedPage;
-                }
-                pages.add(new LanguageNavigationItemImpl(page, active, request, level, children, title));
+        String currentPagePath = currentPage.getPath();
+        for (NavigationTree.Node node : root.getChildren()) {
+            if (!node.isValid(time)) {
+                continue;
+            }
+            Page page = getLocalizedPage(pageManager, node);
+            if (page == null) {
+                page = pageManager.getPage(node.getPath());
+            }
+            if (page == null) {
+                continue;
             }
+            boolean active = currentPagePath.equals(node.getPath()) || currentPagePath.startsWith(node.getPath() + "/");
+            String title = node.getNavigationTitle();
+            if (title == null) {
+                title = node.getTitle();
+            }
+            List<NavigationItem> children = getItems(pageManager, node);
+            int level = node.getDepth() - 1;
+            pages.add(new LanguageNavigationItemImpl(page, active, request, level, children, title));
         }
-
         return pages;
     }
 
-    private Page getLocalizedPage(Page page, Page languageRoot) {
-        Page localizedPage;
+    /**
+     * Returns the page corresponding to the current page in the language tree represented by the {@code languageRoot} node, by appending
+     * the path of the current page, relative to its own language tree, to the path of the language root.
+     */
+    private Page getLocalizedPage(PageManager pageManager, NavigationTree.Node languageRoot) {
         String path = languageRoot.getPath();
-        String relativePath = page.getPath();
-        if (relativePath.startsWith(path)) {
-            localizedPage = page;
-        } else {
-            String separator = "/";
-            int i = relativePath.indexOf(separator);
-            int occurrence = StringUtils.countMatches(path, separator) + 1;
-            while (--occurrence > 0 && i != -1) {
-                i = relativePath.indexOf(separator, i + 1);
-            }
-            relativePath = (i > 0) ? relativePath.substring(i) : "";
-            path = path.concat(relativePath);
-            PageManager pageManager = page.getPageManager();
-            localizedPage = pageManager.getPage(path);
+        String currentPagePath = currentPage.getPath();
+        if (currentPagePath.startsWith(path)) {
+            return currentPage;
+        }
+        if (localizedLanguageRoots != null && !localizedLanguageRoots.contains(path)) {
+            // the index already knows there's no language copy of the current page under this language root
+            return null;
+        }
+        int languageRootDepth = rootPageDepth + languageRoot.getDepth();
+        String relativePath = languageRootDepth < currentPathSeparators.length ?
+                currentPagePath.substring(currentPathSeparators[languageRootDepth]) : "";
+        return pageManager.getPage(path.concat(relativePath));
+    }
+
+    private static int[] getSeparatorPositions(String path) {
+        int[] positions = new int[StringUtils.countMatches(path, "/")];
+        int position = -1;
+        for (int i = 0; i < positions.length; i++) {
+            position = path.indexOf('/', position + 1);
+            positions[i] = position;
         }
-        return localizedPage;
+        return positions;
     }
 }
@@ -15,18 +15,22 @@
  ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
 package com.adobe.cq.wcm.core.components.internal.models.v1;
 
-import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
 import javax.jcr.RepositoryException;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
@@ -36,6 +40,7 @@ import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
@@ -45,6 +50,13 @@ import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.adobe.cq.wcm.core.components.internal.list.ChildPagesQuery;
+import com.adobe.cq.wcm.core.components.internal.list.ListPagination;
+import com.adobe.cq.wcm.core.components.internal.list.ListResultCache;
+import com.adobe.cq.wcm.core.components.internal.list.PageCollector;
+import com.adobe.cq.wcm.core.components.internal.list.PageSortKey;
+import com.adobe.cq.wcm.core.components.internal.list.TaggedPagesIndex;
 import com.adobe.cq.wcm.core.components.models.List;
 import com.day.cq.commons.RangeIterator;
 import com.day.cq.search.Predicate;
@@ -56,7 +68,9 @@ import com.day.cq.wcm.api.NameConstants;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.designer.Style;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Iterators;
 
 @Model(adaptables = SlingHttpServletRequest.class, adapters = {List.class, ComponentExporter.class}, resourceType = ListImpl.RESOURCE_TYPE)
 @Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
@@ -74,6 +88,17 @@ public class ListImpl implements List {
     private static final String PN_DATE_FORMAT_DEFAULT = "yyyy-MM-dd";
     private static final String TAGS_MATCH_ANY_VALUE = "any";
 
+    /**
+     * Policy property enabling the query mode of the children source, see {@link ChildPagesQuery}.
+     */
+    static final String PN_CHILDREN_QUERY = "childrenQuery";
+
+    /**
+     * Lists which only contain the direct children of their parent page are always built by traversing the page tree, as well as
+     * unordered lists, which list the pages in the tree's order.
+     */
+    private static final int CHILDREN_QUERY_MIN_DEPTH = 2;
+
     @ScriptVariable
     private ValueMap properties;
 
@@ -92,6 +117,12 @@ public class ListImpl implements List {
     @Self
     private SlingHttpServletRequest request;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private ListResultCache listResultCache;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private TaggedPagesIndex taggedPagesIndex;
+
     @ValueMapValue(injectionStrategy = InjectionStrategy.OPTIONAL)
     @Default(intValues = LIMIT_DEFAULT)
     private int limit;
@@ -116,13 +147,21 @@ public class ListImpl implements List {
     private boolean showDescription;
     private boolean showModificationDate;
     private boolean linkItems;
+    private boolean childrenQuery;
 
     private PageManager pageManager;
+    private ListPagination pagination;
+    private Integer total;
+    private boolean hasMore;
+    private int collectedItems;
+    private PageCollector collector;
+    private java.util.List<String> watchedPaths;
     protected java.util.List<Page> listItems;
 
     @PostConstruct
     private void initModel() {
         pageManager = resourceResolver.adaptTo(PageManager.class);
+        pagination = ListPagination.fromRequest(request, resource);
         readProperties();
     }
 
@@ -138,6 +177,7 @@ public class ListImpl implements List {
                 PN_SHOW_MODIFICATION_DATE, currentStyle.get(PN_SHOW_MODIFICATION_DATE, SHOW_MODIFICATION_DATE_DEFAULT));
         linkItems = properties.get(PN_LINK_ITEMS, currentStyle.get(PN_LINK_ITEMS, LINK_ITEMS_DEFAULT));
         dateFormatString = properties.get(PN_DATE_FORMAT, currentStyle.get(PN_DATE_FORMAT, PN_DATE_FORMAT_DEFAULT));
+        childrenQuery = currentStyle.get(PN_CHILDREN_QUERY, false);
 
     }
 
@@ -150,6 +190,33 @@ public class ListImpl implements List {
         return listItems;
     }
 
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getTotal() {
+        getItems();
+        return total;
+    }
+
+    @Override
+    @JsonProperty("hasMore")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean hasMore() {
+        getItems();
+        return hasMore;
+    }
+
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getNextOffset() {
+        return hasMore() ? pagination.getNextOffset() : null;
+    }
+
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNextUrl() {
+        return hasMore() ? pagination.getNextUrl(request, resource) : null;
+    }
+
     @Override
     @JsonProperty("linkItems")
     public boolean linkItems() {
@@ -185,6 +252,79 @@ public class ListImpl implements List {
     }
 
     protected void populateListItems(Source listType) {
+        // only the items up to the requested page are collected from the source
+        int pageMaxItems = pagination.getMaxItems(maxItems);
+        if (listResultCache != null) {
+            populateCachedListItems(listType, pageMaxItems);
+        } else {
+            Integer sourceSize = collectListItems(listType, pageMaxItems);
+            if (pagination.isPaged()) {
+                int size = listItems.size();
+                setPaginationState(size, sourceSize, pageMaxItems);
+                listItems = new ArrayList<>(listItems.subList(pagination.getStart(size), pagination.getEnd(size)));
+            }
+        }
+    }
+
+    private void populateCachedListItems(Source listType, int pageMaxItems) {
+        ListResultCache.Key key = new ListResultCache.Key(resource.getPath(), getPropertiesFingerprint(listType),
+                currentStyle.getPath(), resourceResolver.getUserID(), pageMaxItems);
+        ListResultCache.Result result = listResultCache.getResult(key, () -> {
+            Integer sourceSize = collectListItems(listType, pageMaxItems);
+            java.util.List<String> paths = new ArrayList<>(listItems.size());
+            for (Page page : listItems) {
+                paths.add(page.getPath());
+            }
+            return new ListResultCache.Result(paths, sourceSize, watchedPaths, listType == Source.TAGS);
+        });
+        java.util.List<String> pagePaths = result.getPagePaths();
+        int size = pagePaths.size();
+        if (pagination.isPaged()) {
+            setPaginationState(size, result.getSourceSize(), pageMaxItems);
+        }
+        if (listItems != null) {
+            listItems = new ArrayList<>(listItems.subList(pagination.getStart(size), pagination.getEnd(size)));
+        } else {
+            // the result was cached; only the pages of the requested page which are still readable by the current user are listed
+            listItems = new ArrayList<>();
+            for (String pagePath : pagePaths.subList(pagination.getStart(size), pagination.getEnd(size))) {
+                Page page = pageManager.getPage(pagePath);
+                if (page != null) {
+                    listItems.add(page);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the total and the {@code hasMore} flag of a paginated list, from the number of items collected up to the requested page.
+     */
+    private void setPaginationState(int size, Integer sourceSize, int pageMaxItems) {
+        total = sourceSize != null ? sourceSize : pageMaxItems == maxItems ? Integer.valueOf(size) : null;
+        hasMore = pagination.hasMore(size);
+    }
+
+    /**
+     * Returns a representation of all the settings determining the list's result, used to identify the cached results of a list.
+     */
+    private String getPropertiesFingerprint(Source listType) {
+        Map<String, String> values = new TreeMap<>();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            Object value = property.getValue();
+            values.put(property.getKey(), value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value));
+        }
+        return currentPage.getPath() + "|" + listType + "|" + childrenQuery + "|" + values;
+    }
+
+    /**
+     * Collects at most {@code collectedItems} items from the list's source.
+     *
+     * @return the number of items of the list if all the pages of the source were read, {@code null} otherwise
+     */
+    private Integer collectListItems(Source listType, int collectedItems) {
+        this.collectedItems = collectedItems;
+        collector = new PageCollector(collectedItems, getSortKeys());
+        watchedPaths = new ArrayList<>();
         switch (listType) {
             case STATIC:
                 populateStaticListItems();
@@ -199,60 +339,94 @@ public class ListImpl implements List {
                 populateSearchListItems();
                 break;
             default:
-                listItems = new ArrayList<>();
                 break;
         }
-        sortListItems();
-        setMaxItems();
+        // the sources only stop reading pages once the collector is full; an ordered list keeps fewer pages than it was offered
+        Integer sourceSize = collector.isFull() ? null
+                : (int) Math.min(collector.getAddedCount(), maxItems > 0 ? maxItems : Integer.MAX_VALUE);
+        listItems = collector.getPages();
+        collector = null;
+        return sourceSize;
     }
 
 
+    private Function<Page, PageSortKey> getSortKeys() {
+        if (orderBy == OrderBy.TITLE) {
+            // titles are collated according to the language of the page rendering the list
+            return PageSortKey.byTitle(currentPage.getLanguage(false), sortOrder == SortOrder.DESC);
+        } else if (orderBy == OrderBy.MODIFIED) {
+            return PageSortKey.byLastModified(sortOrder == SortOrder.DESC);
+        }
+        return null;
+    }
+
     private void populateStaticListItems() {
-        listItems = new ArrayList<>();
         String[] pagesPaths = properties.get(PN_PAGES, new String[0]);
+        Collections.addAll(watchedPaths, pagesPaths);
         for (String path : pagesPaths) {
+            if (collector.isFull()) {
+                break;
+            }
             Page page = pageManager.getContainingPage(path);
             if (page != null) {
-                listItems.add(page);
+                collector.add(page);
             }
         }
     }
 
     private void populateChildListItems() {
-        listItems = new ArrayList<>();
         Page rootPage = getRootPage(PN_PARENT_PAGE);
         if (rootPage != null) {
-            collectChildren(rootPage.getDepth(), rootPage);
+            if (childrenQuery && childDepth >= CHILDREN_QUERY_MIN_DEPTH && orderBy != null) {
+                queryChildren(rootPage);
+            } else {
+                collectChildren(1, rootPage);
+            }
         }
     }
 
-    private void collectChildren(int startLevel, Page parent) {
+    private void queryChildren(Page rootPage) {
+        try {
+            new ChildPagesQuery(rootPage.getPath(), childDepth).collect(resourceResolver, collector);
+        } catch (RepositoryException e) {
+            LOGGER.error("Unable to query the child pages of {}; traversing the page tree instead.", rootPage.getPath(), e);
+            // the pages found before the failure would be collected twice
+            collector = new PageCollector(collectedItems, getSortKeys());
+            collectChildren(1, rootPage);
+        }
+    }
+
+    /**
+     * Collects the children of {@code parent}, which are {@code depth} levels below the list's parent page; the depth is tracked while
+     * descending, instead of being computed from each child's path.
+     */
+    private void collectChildren(int depth, Page parent) {
         Iterator<Page> childIterator = parent.listChildren();
-        while (childIterator.hasNext()) {
+        while (childIterator.hasNext() && !collector.isFull()) {
             Page child = childIterator.next();
-            listItems.add(child);
-            if (child.getDepth() - startLevel < childDepth) {
-                collectChildren(startLevel, child);
+            collector.add(child);
+            if (depth < childDepth) {
+                collectChildren(depth + 1, child);
             }
         }
     }
 
     private void populateTagListItems() {
-        listItems = new ArrayList<>();
         String[] tags = properties.get(PN_TAGS, new String[0]);
         boolean matchAny = properties.get(PN_TAGS_MATCH, TAGS_MATCH_ANY_VALUE).equals(TAGS_MATCH_ANY_VALUE);
         if (ArrayUtils.isNotEmpty(tags)) {
             Page rootPage = getRootPage(PN_TAGS_PARENT_PAGE);
             if (rootPage != null) {
-                TagManager tagManager = resourceResolver.adaptTo(TagManager.class);
-                if (tagManager != null) {
-                    RangeIterator<Resource> resourceRangeIterator = tagManager.find(rootPage.getPath(), tags, matchAny);
-                    if (resourceRangeIterator != null) {
-                        while (resourceRangeIterator.hasNext()) {
-                            Page containingPage = pageManager.getContainingPage(resourceRangeIterator.next());
-                            if (containingPage != null) {
-                                listItems.add(containingPage);
-                            }
+                Iterator<String> resourcePaths = findTaggedResources(rootPage.getPath(), tags, matchAny);
+                Set<String> pagePaths = new HashSet<>();
+                while (resourcePaths.hasNext() && !collector.isFull()) {
+                    String pagePath = Utils.getContainingPagePath(resourcePaths.next());
+                    // pages with several tagged components are only resolved and listed once
+                    if (pagePaths.add(pagePath)) {
+                        Page containingPage = pageManager.getContainingPage(pagePath);
+                        if (containingPage != null &&
+                                (pagePath.equals(containingPage.getPath()) || pagePaths.add(containingPage.getPath()))) {
+                            collector.add(containingPage);
                         }
                     }
                 }
@@ -260,15 +434,33 @@ public class ListImpl implements List {
         }
     }
 
+    /**
+     * Returns the paths of the tagged resources, either from the {@link TaggedPagesIndex} or lazily from a tag search.
+     */
+    private Iterator<String> findTaggedResources(String rootPath, String[] tags, boolean matchAny) {
+        if (taggedPagesIndex != null) {
+            return taggedPagesIndex.getTaggedResources(resourceResolver, rootPath, tags, matchAny).iterator();
+        }
+        TagManager tagManager = resourceResolver.adaptTo(TagManager.class);
+        if (tagManager != null) {
+            RangeIterator<Resource> resourceRangeIterator = tagManager.find(rootPath, tags, matchAny);
+            if (resourceRangeIterator != null) {
+                return Iterators.transform(resourceRangeIterator, Resource::getPath);
+            }
+        }
+        return Collections.emptyIterator();
+    }
+
     private void populateSearchListItems() {
-        listItems = new ArrayList<>();
         if (!StringUtils.isBlank(query)) {
             SimpleSearch search = resource.adaptTo(SimpleSearch.class);
             if (search != null) {
+                watchedPaths.add(startIn);
                 search.setQuery(query);
                 search.setSearchIn(startIn);
                 search.addPredicate(new Predicate("type", "type").set("type", NameConstants.NT_PAGE));
-                search.setHitsPerPage(limit);
+                // unordered searches only need the hits up to the requested page
+                search.setHitsPerPage(orderBy == null && collectedItems > 0 ? Math.min(limit, collectedItems) : limit);
                 try {
                     collectSearchResults(search.getResult());
                 } catch (RepositoryException e) {
@@ -280,36 +472,25 @@ public class ListImpl implements List {
 
     private void collectSearchResults(SearchResult result) throws RepositoryException {
         for (Hit hit : result.getHits()) {
+            if (collector.isFull()) {
+                break;
+            }
             Page containingPage = pageManager.getContainingPage(hit.getResource());
             if (containingPage != null) {
-                listItems.add(containingPage);
-            }
-        }
-    }
-
-    private void sortListItems() {
-        if (orderBy != null) {
-            listItems.sort(new ListSort(orderBy, sortOrder));
-        }
-    }
-
-    private void setMaxItems() {
-        if (maxItems != 0) {
-            java.util.List<Page> tmpListItems = new ArrayList<>();
-            for (Page item : listItems) {
-                if (tmpListItems.size() < maxItems) {
-                    tmpListItems.add(item);
-                } else {
-                    break;
-                }
+                collector.add(containingPage);
             }
-            listItems = tmpListItems;
         }
     }
 
     private Page getRootPage(String fieldName) {
         String parentPath = properties.get(fieldName, currentPage.getPath());
-        return pageManager.getContainingPage(resourceResolver.getResource(parentPath));
+        // the configured path is watched even if it doesn't exist yet, in case a page is created there later
+        watchedPaths.add(parentPath);
+        Page rootPage = pageManager.getContainingPage(resourceResolver.getResource(parentPath));
+        if (rootPage != null && !rootPage.getPath().equals(parentPath)) {
+            watchedPaths.add(rootPage.getPath());
+        }
+        return rootPage;
     }
 
 
@@ -375,34 +556,4 @@ public class ListImpl implements List {
             return null;
         }
     }
-
-    private static class ListSort implements Comparator<Page>, Serializable {
-
-
-        private static final long serialVersionUID = 204096578105548876L;
-        private SortOrder sortOrder;
-        private OrderBy orderBy;
-
-        ListSort(OrderBy orderBy, SortOrder sortOrder) {
-            this.orderBy = orderBy;
-            this.sortOrder = sortOrder;
-        }
-
-        @Override
-        public int compare(Page item1, Page item2) {
-            int i = 0;
-            if (orderBy == OrderBy.MODIFIED) {
-                // getLastModified may return null, define null to be after nonnull values
-                i = ObjectUtils.compare(item1.getLastModified(), item2.getLastModified(), true);
-            } else if (orderBy == OrderBy.TITLE) {
-                // getTitle may return null, define null to be greater than nonnull values
-                i = ObjectUtils.compare(item1.getTitle(), item2.getTitle(), true);
-            }
-
-            if (sortOrder == SortOrder.DESC) {
-                i = i * -1;
-            }
-            return i;
-        }
-    }
 }
@@ -17,40 +17,32 @@ package com.adobe.cq.wcm.core.components.internal.models.v1;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
-import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
-import javax.jcr.RangeIterator;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
-import org.apache.sling.api.resource.Resource;
-import org.apache.sling.api.resource.ResourceResolver;
-import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
 import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
-import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
-import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.adobe.cq.wcm.core.components.internal.navigation.LocalizedRootResolver;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTree;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeCache;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeOverlay;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.Navigation;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
-import com.day.cq.wcm.api.LanguageManager;
 import com.day.cq.wcm.api.Page;
-import com.day.cq.wcm.api.PageFilter;
 import com.day.cq.wcm.api.PageManager;
-import com.day.cq.wcm.api.WCMException;
 import com.day.cq.wcm.api.designer.Style;
-import com.day.cq.wcm.msm.api.LiveRelationship;
-import com.day.cq.wcm.msm.api.LiveRelationshipManager;
 
 @Model(adaptables = SlingHttpServletRequest.class,
        adapters = {Navigation.class, ComponentExporter.class},
@@ -63,9 +55,6 @@ public class NavigationImpl implements Navigation {
     @Self
     private SlingHttpServletRequest request;
 
-    @SlingObject
-    private ResourceResolver resourceResolver;
-
     @ScriptVariable
     private Page currentPage;
 
@@ -76,10 +65,13 @@ public class NavigationImpl implements Navigation {
     private Style currentStyle;
 
     @OSGiService
-    private LanguageManager languageManager;
+    private LocalizedRootResolver localizedRootResolver;
 
-    @OSGiService
-    private LiveRelationshipManager relationshipManager;
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private NavigationTreeCache navigationTreeCache;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private RedirectChainCache redirectChainCache;
 
     private int structureDepth;
     private String navigationRootPage;
@@ -101,43 +93,19 @@ public class NavigationImpl implements Navigation {
     public List<NavigationItem> getItems() {
         if (items == null) {
             PageManager pageManager = currentPage.getPageManager();
-            Page rootPage = pageManager.getPage(navigationRootPage);
-            if (rootPage != null) {
-                NavigationRoot navigationRoot = new NavigationRoot(rootPage, structureDepth);
-                Page navigationRootLanguageRoot = languageManager.getLanguageRoot(navigationRoot.page.getContentResource());
-                Page currentPageLanguageRoot = languageManager.getLanguageRoot(currentPage.getContentResource());
-                RangeIterator liveCopiesIterator = null;
-                try {
-                    liveCopiesIterator = relationshipManager.getLiveRelationships(navigationRoot.page.adaptTo(Resource.class), null, null);
-                } catch (WCMException e) {
-                    // ignore it
-                }
-                if (navigationRootLanguageRoot != null && currentPageLanguageRoot != null && !navigationRootLanguageRoot.equals
-                        (currentPageLanguageRoot)) {
-                    // check if there's a language copy of the navigation root
-                    Page languageCopyNavigationRoot = pageManager.getPage(ResourceUtil.normalize(currentPageLanguageRoot.getPath() + "/" +
-                            getRelativePath(navigationRootLanguageRoot, navigationRoot.page)));
-                    if (languageCopyNavigationRoot != null) {
-                        navigationRoot = new NavigationRoot(languageCopyNavigationRoot, structureDepth);
-                    }
-                } else if (liveCopiesIterator != null) {
-                    while (liveCopiesIterator.hasNext()) {
-                        LiveRelationship relationship = (LiveRelationship) liveCopiesIterator.next();
-                        if (currentPage.getPath().startsWith(relationship.getTargetPath() + "/")) {
-                            Page liveCopyNavigationRoot = pageManager.getPage(relationship.getTargetPath());
-                            if (liveCopyNavigationRoot != null) {
-                                navigationRoot = new NavigationRoot(liveCopyNavigationRoot, structureDepth);
-                                break;
-                            }
-                        }
-                    }
-                }
-                items = getItems(navigationRoot, navigationRoot.page);
-                if (!skipNavigationRoot) {
-                    boolean isSelected = checkSelected(navigationRoot.page);
-                    NavigationItemImpl root = new NavigationItemImpl(navigationRoot.page, isSelected, request, 0, items);
+            Page navigationRoot = pageManager.getPage(navigationRootPage);
+            if (navigationRoot != null) {
+                navigationRoot = localizedRootResolver.getLocalizedRoot(navigationRoot, currentPage);
+                NavigationTree navigationTree = navigationTreeCache != null ?
+                        navigationTreeCache.getTree(navigationRoot, structureDepth) :
+                        NavigationTree.build(navigationRoot, structureDepth);
+                NavigationTreeOverlay overlay = new NavigationTreeOverlay(request, currentPage, skipNavigationRoot ? -1 : 0,
+                        redirectChainCache);
+                if (skipNavigationRoot) {
+                    items = overlay.getItems(navigationTree.getRoot());
+                } else {
                     items = new ArrayList<>();
-                    items.add(root);
+                    items.add(overlay.getItem(navigationRoot, navigationTree.getRoot()));
                 }
             } else {
                 items = Collections.emptyList();
@@ -152,83 +120,4 @@ public class NavigationImpl implements Navigation {
         return request.getResource().getResourceType();
     }
 
-    /**
-     * Builds the navigation tree for a {@code navigationRoot} page.
-     *
-     * @param navigationRoot the global navigation tree root (start page)
-     * @param subtreeRoot the current sub-tree root (changes depending on the level of recursion)
-     * @return the list of collected navigation trees
-     */
-    private List<NavigationItem> getItems(NavigationRoot navigationRoot, Page subtreeRoot) {
-        List<NavigationItem> pages = new ArrayList<>();
-        if (navigationRoot.structureDepth == -1 || getLevel(subtreeRoot) < navigationRoot.structureDepth) {
-            Iterator<Page> it = subtreeRoot.listChildren(new PageFilter());
-            while (it.hasNext()) {
-                Page page = it.next();
-                int pageLevel = getLevel(page);
-                int level = pageLevel - navigationRoot.startLevel;
-                List<NavigationItem> children = getItems(navigationRoot, page);
-                boolean isSelected = checkSelected(page);
-                if (skipNavigationRoot) {
-                    level = level - 1;
-                }
-                pages.add(new NavigationItemImpl(page, isSelected, request, level, children));
-            }
-        }
-        return pages;
-    }
-
-    private boolean checkSelected(Page page) {
-        return this.currentPage.equals(page) ||
-                this.currentPage.getPath().startsWith(page.getPath() + "/") ||
-                currentPageIsRedirectTarget(page);
-    }
-
-    private boolean currentPageIsRedirectTarget(Page page) {
-        boolean currentPageIsRedirectTarget = false;
-        Resource contentResource = page.getContentResource();
-        if (contentResource != null) {
-            ValueMap valueMap = contentResource.getValueMap();
-            String redirectTarget = valueMap.get(PageImpl.PN_REDIRECT_TARGET, String.class);
-            if(StringUtils.isNotBlank(redirectTarget)) {
-                PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
-                if (pageManager != null) {
-                    Page redirectPage = pageManager.getPage(redirectTarget);
-                    if (redirectPage.equals(currentPage)) {
-                        currentPageIsRedirectTarget = true;
-                    }
-                }
-            }
-        }
-        return currentPageIsRedirectTarget;
-    }
-
-    private int getLevel(Page page) {
-        return StringUtils.countMatches(page.getPath(), "/") - 1;
-    }
-
-    @CheckForNull
-    private String getRelativePath(@Nonnull Page root, @Nonnull Page child) {
-        if (child.equals(root)) {
-            return ".";
-        } else if ((child.getPath() + "/").startsWith(root.getPath())) {
-            return child.getPath().substring(root.getPath().length() + 1);
-        }
-        return null;
-    }
-
-    private class NavigationRoot {
-        Page page;
-        int startLevel;
-        int structureDepth = -1;
-
-        private NavigationRoot(@Nonnull Page navigationRoot, int configuredStructureDepth) {
-            page = navigationRoot;
-            this.startLevel = getLevel(navigationRoot);
-            if (configuredStructureDepth > -1) {
-                structureDepth = configuredStructureDepth + startLevel;
-            }
-        }
-    }
-
 }
@@ -17,9 +17,13 @@ package com.adobe.cq.wcm.core.components.internal.models.v1;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import org.apache.sling.api.SlingHttpServletRequest;
 
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.Page;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -29,14 +33,44 @@ public class NavigationItemImpl extends PageListItemImpl implements NavigationIt
     protected List<NavigationItem> children = Collections.emptyList();
     protected int level;
     protected boolean active;
+    private Supplier<List<NavigationItem>> childrenSupplier;
 
     public NavigationItemImpl(Page page, boolean active, SlingHttpServletRequest request, int level, List<NavigationItem> children) {
-        super(request, page);
+        this(page, active, request, level, children, null);
+    }
+
+    /**
+     * Creates a navigation item whose page's redirect chain is resolved through the {@code redirectChainCache}, if available.
+     */
+    public NavigationItemImpl(Page page, boolean active, SlingHttpServletRequest request, int level, List<NavigationItem> children,
+                              @Nullable RedirectChainCache redirectChainCache) {
+        super(request, page, redirectChainCache);
         this.active = active;
         this.level = level;
         this.children = children;
     }
 
+    /**
+     * Creates a navigation item whose children are only collected when they are first requested.
+     */
+    public NavigationItemImpl(Page page, boolean active, SlingHttpServletRequest request, int level,
+                              Supplier<List<NavigationItem>> childrenSupplier) {
+        this(page, active, request, level, childrenSupplier, null);
+    }
+
+    /**
+     * Creates a navigation item whose children are only collected when they are first requested and whose page's redirect chain is
+     * resolved through the {@code redirectChainCache}, if available.
+     */
+    public NavigationItemImpl(Page page, boolean active, SlingHttpServletRequest request, int level,
+                              Supplier<List<NavigationItem>> childrenSupplier, @Nullable RedirectChainCache redirectChainCache) {
+        super(request, page, redirectChainCache);
+        this.active = active;
+        this.level = level;
+        this.children = null;
+        this.childrenSupplier = childrenSupplier;
+    }
+
     @Override
     @JsonIgnore
     public Page getPage() {
@@ -50,6 +84,10 @@ public class NavigationItemImpl extends PageListItemImpl implements NavigationIt
 
     @Override
     public List<NavigationItem> getChildren() {
+        if (children == null && childrenSupplier != null) {
+            children = childrenSupplier.get();
+            childrenSupplier = null;
+        }
         return children;
     }
 
@@ -16,33 +16,34 @@
 package com.adobe.cq.wcm.core.components.internal.models.v1;
 
 import java.util.Calendar;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.wcm.core.components.internal.Utils;
-import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.ListItem;
 import com.day.cq.wcm.api.Page;
-import com.day.cq.wcm.api.PageManager;
 
 public class PageListItemImpl implements ListItem {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(PageListItemImpl.class);
-
     protected SlingHttpServletRequest request;
     protected Page page;
 
     public PageListItemImpl(@Nonnull SlingHttpServletRequest request, @Nonnull Page page) {
+        this(request, page, null);
+    }
+
+    /**
+     * Creates a list item whose page's redirect chain is resolved through the {@code redirectChainCache}, if available.
+     */
+    public PageListItemImpl(@Nonnull SlingHttpServletRequest request, @Nonnull Page page, @Nullable RedirectChainCache redirectChainCache) {
         this.request = request;
         this.page = page;
-        Page redirectTarget = getRedirectTarget(page);
+        Page redirectTarget = redirectChainCache != null ? redirectChainCache.getRedirectTarget(page) :
+                RedirectChainCache.resolveRedirectTarget(page);
         if (redirectTarget != null && !redirectTarget.equals(page)) {
             this.page = redirectTarget;
         }
@@ -83,23 +84,4 @@ public class PageListItemImpl implements ListItem {
         return page.getPath();
     }
 
-
-    private Page getRedirectTarget(@Nonnull Page page) {
-        Page result = page;
-        String redirectTarget;
-        PageManager pageManager = page.getPageManager();
-        Set<String> redirectCandidates = new LinkedHashSet<>();
-        redirectCandidates.add(page.getPath());
-        while (result != null && StringUtils.isNotEmpty((redirectTarget = result.getProperties().get(PageImpl.PN_REDIRECT_TARGET, String.class)))) {
-            result = pageManager.getPage(redirectTarget);
-            if (result != null) {
-                if (!redirectCandidates.add(result.getPath())) {
-                    LOGGER.warn("Detected redirect loop for the following pages: {}.", redirectCandidates.toString());
-                    break;
-                }
-            }
-        }
-        return result;
-    }
-
 }
@@ -32,6 +32,7 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
 import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
@@ -48,6 +49,8 @@ import com.adobe.cq.commerce.common.CommerceHelper;
 import com.adobe.cq.commerce.common.PriceFilter;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChain;
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChainCache;
 import com.adobe.cq.wcm.core.components.models.SocialMediaHelper;
 import com.adobe.cq.xf.social.ExperienceFragmentSocialVariation;
 import com.day.cq.commons.Externalizer;
@@ -93,6 +96,9 @@ public class SocialMediaHelperImpl implements SocialMediaHelper {
     @OSGiService
     private Externalizer externalizer = null;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private AncestorChainCache ancestorChainCache;
+
     /**
      * lazy variable, use hasSharingComponent() method for accessing it
      */
@@ -341,34 +347,23 @@ public class SocialMediaHelperImpl implements SocialMediaHelper {
 
         @Override
         public String getSiteName() {
-            Page page = findRootPage();
-
-            String pageTitle = page.getPageTitle();
+            AncestorChain.Ancestor root = getAncestorChain().getRoot();
+            if (root == null) {
+                return null;
+            }
+            String pageTitle = root.getPageTitle();
             if (StringUtils.isNotBlank(pageTitle)) {
                 return pageTitle;
             }
-
-            Resource content = page.getContentResource();
-            if (content == null) {
-                return null;
-            }
-            String title = content.getValueMap().get(JcrConstants.JCR_TITLE, String.class);
+            String title = root.getTitle();
             if (StringUtils.isBlank(title)) {
                 return null;
             }
             return title;
         }
 
-        private Page findRootPage() {
-            Page page = currentPage;
-            while (true) {
-                Page parent = page.getParent();
-                if (parent == null) {
-                    return page;
-                } else {
-                    page = parent;
-                }
-            }
+        private AncestorChain getAncestorChain() {
+            return ancestorChainCache != null ? ancestorChainCache.getChain(currentPage) : AncestorChain.build(currentPage);
         }
     }
 
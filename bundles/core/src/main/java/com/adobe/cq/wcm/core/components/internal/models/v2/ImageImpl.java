@@ -23,29 +23,38 @@ import javax.annotation.PostConstruct;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jackrabbit.util.Text;
 import org.apache.sling.api.SlingHttpServletRequest;
-import org.apache.sling.api.resource.Resource;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
+import com.adobe.cq.wcm.core.components.internal.AssetLookup;
 import com.adobe.cq.wcm.core.components.internal.servlets.AdaptiveImageServlet;
+import com.adobe.cq.wcm.core.components.internal.servlets.ImagePlaceholderRenderer;
 import com.adobe.cq.wcm.core.components.models.Image;
 import com.day.cq.dam.api.Asset;
 import com.day.cq.dam.api.DamConstants;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 @Model(adaptables = SlingHttpServletRequest.class, adapters = {Image.class, ComponentExporter.class}, resourceType = ImageImpl.RESOURCE_TYPE)
 @Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
 public class ImageImpl extends com.adobe.cq.wcm.core.components.internal.models.v1.ImageImpl implements Image {
 
     public static final String RESOURCE_TYPE = "core/wcm/components/image/v2/image";
-    private static final Logger LOGGER = LoggerFactory.getLogger(ImageImpl.class);
     private static final String SRC_URI_TEMPLATE_WIDTH_VAR = "{.width}";
     private static final String CONTENT_POLICY_DELEGATE_PATH = "contentPolicyDelegatePath";
+    private static final String DEFAULT_SIZES = "100vw";
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private ImagePlaceholderRenderer placeholderRenderer;
 
     private String srcUriTemplate;
+    private boolean placeholderEnabled;
+    private String placeholder;
+    private String srcset;
+    private String sizes;
 
     public ImageImpl() {
         selector = AdaptiveImageServlet.CORE_DEFAULT_SELECTOR;
@@ -58,36 +67,30 @@ public class ImageImpl extends com.adobe.cq.wcm.core.components.internal.models.
         boolean titleValueFromDAM = properties.get(PN_TITLE_VALUE_FROM_DAM, currentStyle.get(PN_TITLE_VALUE_FROM_DAM, true));
         displayPopupTitle = properties.get(PN_DISPLAY_POPUP_TITLE, currentStyle.get(PN_DISPLAY_POPUP_TITLE, true));
         if (StringUtils.isNotEmpty(fileReference)) {
-            // the image is coming from DAM
-            final Resource assetResource = request.getResourceResolver().getResource(fileReference);
-            if (assetResource != null) {
-                Asset asset = assetResource.adaptTo(Asset.class);
-                if (asset != null) {
-                    if (!isDecorative && altValueFromDAM) {
-                        String damDescription = asset.getMetadataValue(DamConstants.DC_DESCRIPTION);
-                        if(StringUtils.isEmpty(damDescription)) {
-                            damDescription = asset.getMetadataValue(DamConstants.DC_TITLE);
-                        }
-                        if (StringUtils.isNotEmpty(damDescription)) {
-                            alt = damDescription;
-                        }
+            // the image is coming from DAM; the asset was already resolved by super.initModel()
+            AssetLookup assetLookup = AssetLookup.get(request);
+            Asset asset = assetLookup.getAsset(fileReference);
+            if (asset != null) {
+                if (!isDecorative && altValueFromDAM) {
+                    String damDescription = assetLookup.getMetadataValue(asset, DamConstants.DC_DESCRIPTION);
+                    if(StringUtils.isEmpty(damDescription)) {
+                        damDescription = assetLookup.getMetadataValue(asset, DamConstants.DC_TITLE);
+                    }
+                    if (StringUtils.isNotEmpty(damDescription)) {
+                        alt = damDescription;
                     }
-                    if (titleValueFromDAM) {
-                        String damTitle = asset.getMetadataValue(DamConstants.DC_TITLE);
-                        if (StringUtils.isNotEmpty(damTitle)) {
-                            title = damTitle;
-                        }
+                }
+                if (titleValueFromDAM) {
+                    String damTitle = assetLookup.getMetadataValue(asset, DamConstants.DC_TITLE);
+                    if (StringUtils.isNotEmpty(damTitle)) {
+                        title = damTitle;
                     }
-                } else {
-                    LOGGER.error("Unable to adapt resource '{}' used by image '{}' to an asset.", fileReference,
-                            request.getResource().getPath());
                 }
-            } else {
-                LOGGER.error("Unable to find resource '{}' used by image '{}'.", fileReference, request.getResource().getPath());
             }
         }
         if (hasContent) {
             disableLazyLoading = currentStyle.get(PN_DESIGN_LAZY_LOADING_ENABLED, true);
+            placeholderEnabled = currentStyle.get(PN_DESIGN_PLACEHOLDER_ENABLED, false);
 
             srcUriTemplate = baseResourcePath + DOT + selector +
                     SRC_URI_TEMPLATE_WIDTH_VAR + DOT + extension +
@@ -100,6 +103,19 @@ public class ImageImpl extends com.adobe.cq.wcm.core.components.internal.models.
                 src += "?" + CONTENT_POLICY_DELEGATE_PATH + "=" + policyDelegatePath;
             }
 
+            if (currentStyle.get(PN_DESIGN_SRCSET_ENABLED, false) && smartSizes.length > 1) {
+                StringBuilder srcsetBuilder = new StringBuilder();
+                for (int width : smartSizes) {
+                    if (srcsetBuilder.length() > 0) {
+                        srcsetBuilder.append(", ");
+                    }
+                    srcsetBuilder.append(srcUriTemplate.replace(SRC_URI_TEMPLATE_WIDTH_VAR, DOT + width)).append(' ').append(width)
+                            .append('w');
+                }
+                srcset = srcsetBuilder.toString();
+                sizes = currentStyle.get(PN_DESIGN_SIZES, DEFAULT_SIZES);
+            }
+
             buildJson();
         }
     }
@@ -120,4 +136,25 @@ public class ImageImpl extends com.adobe.cq.wcm.core.components.internal.models.
         return !disableLazyLoading;
     }
 
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getPlaceholder() {
+        if (placeholder == null && placeholderEnabled && placeholderRenderer != null) {
+            placeholder = placeholderRenderer.getPlaceholderDataUri(resource, lastModifiedDate);
+        }
+        return placeholder;
+    }
+
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getSrcset() {
+        return srcset;
+    }
+
+    @Override
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getSizes() {
+        return sizes;
+    }
+
 }
@@ -23,11 +23,14 @@ import javax.annotation.Nonnull;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
 import com.adobe.cq.wcm.core.components.internal.models.v1.PageListItemImpl;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.models.List;
 import com.adobe.cq.wcm.core.components.models.ListItem;
 import com.day.cq.wcm.api.Page;
@@ -42,18 +45,26 @@ public class ListImpl extends com.adobe.cq.wcm.core.components.internal.models.v
     @Self
     private SlingHttpServletRequest request;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private RedirectChainCache redirectChainCache;
+
+    private Collection<ListItem> items;
+
     @Override
     @Nonnull
     @JsonProperty("items")
     public Collection<ListItem> getListItems() {
-        Collection<ListItem> listItems = new ArrayList<>();
-        Collection<Page> pages = getPages();
-        for (Page page : pages) {
-            if (page != null) {
-                listItems.add(new PageListItemImpl(request, page));
+        if (items == null) {
+            // the items are created once, since both the script and the JSON exporter request them
+            items = new ArrayList<>();
+            Collection<Page> pages = getPages();
+            for (Page page : pages) {
+                if (page != null) {
+                    items.add(new PageListItemImpl(request, page, redirectChainCache));
+                }
             }
         }
-        return listItems;
+        return items;
     }
 
     private Collection<Page> getPages() {
@@ -0,0 +1,218 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Immutable representation of the ancestors of a page, from the top level of the repository down to the page itself, holding the page
+ * properties needed by the components rendering the page's ancestry (e.g. the breadcrumb). The chain is indexed by level, like
+ * {@link Page#getAbsoluteParent(int)}; the levels which are not pages (e.g. folders) have no ancestor. Like {@link NavigationTree}, the
+ * chain doesn't hold any reference to the resource resolver used to build it and can be shared between requests.
+ */
+public final class AncestorChain {
+
+    private static final AncestorChain EMPTY = new AncestorChain(Collections.emptyList());
+
+    private final List<Ancestor> ancestors;
+
+    private AncestorChain(@Nonnull List<Ancestor> ancestors) {
+        this.ancestors = ancestors;
+    }
+
+    /**
+     * Builds the ancestor chain of the {@code page}.
+     *
+     * @param page the page
+     * @return the ancestor chain
+     */
+    @Nonnull
+    public static AncestorChain build(@Nonnull Page page) {
+        AncestorChain chain = EMPTY;
+        int depth = page.getDepth();
+        for (int level = 0; level < depth; level++) {
+            chain = chain.append(level == depth - 1 ? page : page.getAbsoluteParent(level));
+        }
+        return chain;
+    }
+
+    /**
+     * @return the chain of the top level of the repository, which doesn't have any ancestor yet
+     */
+    @Nonnull
+    static AncestorChain empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new chain, made of the ancestors of this chain followed by the {@code page} found on the next level.
+     *
+     * @param page the page found on the next level, or {@code null} if the level is not a page
+     * @return the new chain
+     */
+    @Nonnull
+    AncestorChain append(@Nullable Page page) {
+        List<Ancestor> appended = new ArrayList<>(ancestors.size() + 1);
+        appended.addAll(ancestors);
+        appended.add(page != null ? new Ancestor(page, ancestors.size()) : null);
+        return new AncestorChain(Collections.unmodifiableList(appended));
+    }
+
+    /**
+     * @return the number of levels of the chain, i.e. the depth of the page for which the chain was built
+     */
+    public int getDepth() {
+        return ancestors.size();
+    }
+
+    /**
+     * Returns the ancestor found on the given {@code level}.
+     *
+     * @param level the level, {@code 0} being the top level of the repository
+     * @return the ancestor, or {@code null} if the level is not a page or is outside the chain
+     * @see Page#getAbsoluteParent(int)
+     */
+    @CheckForNull
+    public Ancestor getAncestor(int level) {
+        return level >= 0 && level < ancestors.size() ? ancestors.get(level) : null;
+    }
+
+    /**
+     * Returns the root of the page's hierarchy, i.e. the topmost ancestor which can be reached from the page by only going through
+     * pages.
+     *
+     * @return the root ancestor, or {@code null} if the chain doesn't end with a page
+     * @see Page#getParent()
+     */
+    @CheckForNull
+    public Ancestor getRoot() {
+        Ancestor root = null;
+        for (int level = ancestors.size() - 1; level >= 0 && ancestors.get(level) != null; level--) {
+            root = ancestors.get(level);
+        }
+        return root;
+    }
+
+    /**
+     * A page of the ancestor chain.
+     */
+    public static final class Ancestor implements CachedPage {
+
+        private final int level;
+        private final String path;
+        private final String title;
+        private final String pageTitle;
+        private final String navigationTitle;
+        private final String vanityUrl;
+        private final String redirectTarget;
+        private final boolean hideInNav;
+
+        private Ancestor(@Nonnull Page page, int level) {
+            this.level = level;
+            this.path = page.getPath();
+            this.title = page.getTitle();
+            this.pageTitle = page.getPageTitle();
+            this.navigationTitle = page.getNavigationTitle();
+            this.vanityUrl = page.getVanityUrl();
+            this.redirectTarget = StringUtils.trimToNull(page.getProperties().get(PageImpl.PN_REDIRECT_TARGET, String.class));
+            this.hideInNav = page.isHideInNav();
+        }
+
+        /**
+         * @return the level of the page
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the path of the page
+         */
+        @Override
+        @Nonnull
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the page's title
+         * @see Page#getTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the page's page title
+         * @see Page#getPageTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getPageTitle() {
+            return pageTitle;
+        }
+
+        /**
+         * @return the page's navigation title
+         * @see Page#getNavigationTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getNavigationTitle() {
+            return navigationTitle;
+        }
+
+        /**
+         * @return the page's vanity URL
+         * @see Page#getVanityUrl()
+         */
+        @Override
+        @CheckForNull
+        public String getVanityUrl() {
+            return vanityUrl;
+        }
+
+        /**
+         * @return the page's redirect target, or {@code null} if the page doesn't redirect
+         */
+        @Override
+        @CheckForNull
+        public String getRedirectTarget() {
+            return redirectTarget;
+        }
+
+        /**
+         * @return {@code true} if the page should be hidden in the navigation, {@code false} otherwise
+         * @see Page#isHideInNav()
+         */
+        public boolean isHideInNav() {
+            return hideInNav;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Caches the {@link AncestorChain}s of pages, so that the components rendering the ancestry of the current page don't have to resolve
+ * every ancestor on every request. The chain of a page is built from the cached chain of its parent, so the pages sharing ancestors
+ * share the work of reading them as well. The chains are cached per page and user and are evicted as soon as one of the pages they
+ * contain is changed.
+ */
+@Component(
+        service = {AncestorChainCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class AncestorChainCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final int MAX_CACHED_CHAINS = 10000;
+
+    private final ContentCache<Key, AncestorChain> chains = new ContentCache<>(MAX_CACHED_CHAINS);
+
+    /**
+     * Returns the ancestor chain of the {@code page}, building it if it was not already cached.
+     *
+     * @param page the page
+     * @return the ancestor chain
+     */
+    @Nonnull
+    public AncestorChain getChain(@Nonnull Page page) {
+        Resource resource = page.adaptTo(Resource.class);
+        PageManager pageManager = page.getPageManager();
+        if (resource == null || pageManager == null) {
+            return AncestorChain.build(page);
+        }
+        String userId = StringUtils.defaultString(resource.getResourceResolver().getUserID());
+        long chainGeneration = chains.getGeneration();
+        return getChain(pageManager, page.getPath(), userId, chainGeneration);
+    }
+
+    @Nonnull
+    private AncestorChain getChain(@Nonnull PageManager pageManager, @Nonnull String path, @Nonnull String userId, long chainGeneration) {
+        Key key = new Key(path, userId);
+        AncestorChain chain = chains.get(key);
+        if (chain == null) {
+            int parentEnd = path.lastIndexOf('/');
+            AncestorChain parentChain = parentEnd > 0 ? getChain(pageManager, path.substring(0, parentEnd), userId, chainGeneration) :
+                    AncestorChain.empty();
+            chain = parentChain.append(pageManager.getPage(path));
+            chains.put(key, chain, chainGeneration);
+        }
+        return chain;
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> pagePaths = new HashSet<>();
+        for (ResourceChange change : changes) {
+            pagePaths.add(Utils.getContainingPagePath(change.getPath()));
+        }
+        chains.invalidate((key, chain) -> Utils.isSameOrDescendant(key.path, pagePaths));
+    }
+
+    private static final class Key {
+        private final String path;
+        private final String userId;
+
+        private Key(@Nonnull String path, @Nonnull String userId) {
+            this.path = path;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return path.equals(key.path) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, userId);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.adobe.cq.wcm.core.components.models.NavigationItem;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A navigation item backed by a {@link CachedPage}. The URL, title and path are read from the cached page, so that rendering the
+ * navigation doesn't go through the {@link Page} API; the page is only resolved when a property which is not cached is requested, or if
+ * the page redirects, in which case the item represents the final target of the redirect chain.
+ */
+public class CachedNavigationItem implements NavigationItem {
+
+    private final SlingHttpServletRequest request;
+    private final PageManager pageManager;
+    private final CachedPage cachedPage;
+    private final boolean active;
+    private final int level;
+    private final RedirectChainCache redirectChainCache;
+    private Supplier<List<NavigationItem>> childrenSupplier;
+    private List<NavigationItem> children;
+    private Page page;
+    private boolean pageResolved;
+
+    /**
+     * @param request            the current request
+     * @param pageManager        the page manager used to resolve the page
+     * @param cachedPage         the cached properties of the page
+     * @param page               the page, if already resolved by the caller
+     * @param active             {@code true} if the item is active
+     * @param level              the level of the item
+     * @param childrenSupplier   collects the children of the item when they are first requested
+     * @param redirectChainCache the cache used to resolve the redirect chain of the page, or {@code null} to follow the chain
+     */
+    public CachedNavigationItem(@Nonnull SlingHttpServletRequest request, @Nonnull PageManager pageManager,
+                                @Nonnull CachedPage cachedPage, @Nullable Page page, boolean active, int level,
+                                @Nonnull Supplier<List<NavigationItem>> childrenSupplier, @Nullable RedirectChainCache redirectChainCache) {
+        this.request = request;
+        this.pageManager = pageManager;
+        this.cachedPage = cachedPage;
+        this.page = page;
+        this.active = active;
+        this.level = level;
+        this.childrenSupplier = childrenSupplier;
+        this.redirectChainCache = redirectChainCache;
+    }
+
+    @Override
+    @JsonIgnore
+    public Page getPage() {
+        return resolvePage();
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public List<NavigationItem> getChildren() {
+        if (children == null) {
+            children = childrenSupplier.get();
+            childrenSupplier = null;
+        }
+        return children;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getURL() {
+        Page redirectTarget = getRedirectTarget();
+        if (redirectTarget != null) {
+            return Utils.getURL(request, redirectTarget);
+        }
+        return Utils.getURL(request, cachedPage.getPath(), cachedPage.getVanityUrl());
+    }
+
+    @Override
+    public String getTitle() {
+        Page redirectTarget = getRedirectTarget();
+        if (redirectTarget != null) {
+            return ObjectUtils.firstNonNull(redirectTarget.getNavigationTitle(), redirectTarget.getPageTitle(),
+                    redirectTarget.getTitle(), redirectTarget.getName());
+        }
+        return ObjectUtils.firstNonNull(cachedPage.getNavigationTitle(), cachedPage.getPageTitle(), cachedPage.getTitle(),
+                cachedPage.getName());
+    }
+
+    @Override
+    public String getDescription() {
+        Page resolvedPage = resolvePage();
+        return resolvedPage != null ? resolvedPage.getDescription() : null;
+    }
+
+    @Override
+    public Calendar getLastModified() {
+        Page resolvedPage = resolvePage();
+        return resolvedPage != null ? resolvedPage.getLastModified() : null;
+    }
+
+    @Override
+    public String getPath() {
+        Page redirectTarget = getRedirectTarget();
+        return redirectTarget != null ? redirectTarget.getPath() : cachedPage.getPath();
+    }
+
+    /**
+     * Returns the final target of the page's redirect chain, or {@code null} if the page doesn't redirect.
+     */
+    @CheckForNull
+    private Page getRedirectTarget() {
+        return cachedPage.getRedirectTarget() != null ? resolvePage() : null;
+    }
+
+    /**
+     * Resolves the page, following its redirect chain if the page redirects.
+     */
+    @CheckForNull
+    private Page resolvePage() {
+        if (!pageResolved) {
+            pageResolved = true;
+            if (page == null) {
+                page = pageManager.getPage(cachedPage.getPath());
+            }
+            if (page != null && cachedPage.getRedirectTarget() != null) {
+                Page redirectTarget = redirectChainCache != null ? redirectChainCache.getRedirectTarget(page) :
+                        RedirectChainCache.resolveRedirectTarget(page);
+                if (redirectTarget != null) {
+                    page = redirectTarget;
+                }
+            }
+        }
+        return page;
+    }
+}
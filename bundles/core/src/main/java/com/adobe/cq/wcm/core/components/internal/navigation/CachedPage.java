@@ -0,0 +1,78 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import com.day.cq.wcm.api.Page;
+
+/**
+ * The properties of a page which are cached by the shared navigation structures (e.g. {@link NavigationTree} and {@link AncestorChain})
+ * and are enough to render a navigation item of the page without resolving it.
+ */
+public interface CachedPage {
+
+    /**
+     * @return the path of the page
+     */
+    @Nonnull
+    String getPath();
+
+    /**
+     * @return the page's name
+     * @see Page#getName()
+     */
+    @Nonnull
+    default String getName() {
+        String path = getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @return the page's title
+     * @see Page#getTitle()
+     */
+    @CheckForNull
+    String getTitle();
+
+    /**
+     * @return the page's page title
+     * @see Page#getPageTitle()
+     */
+    @CheckForNull
+    String getPageTitle();
+
+    /**
+     * @return the page's navigation title
+     * @see Page#getNavigationTitle()
+     */
+    @CheckForNull
+    String getNavigationTitle();
+
+    /**
+     * @return the page's vanity URL
+     * @see Page#getVanityUrl()
+     */
+    @CheckForNull
+    String getVanityUrl();
+
+    /**
+     * @return the page's redirect target, or {@code null} if the page doesn't redirect
+     */
+    @CheckForNull
+    String getRedirectTarget();
+}
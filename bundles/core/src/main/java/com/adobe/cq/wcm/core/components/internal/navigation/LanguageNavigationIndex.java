@@ -0,0 +1,275 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Indexes the pages available under the language roots of a language navigation, mapping the path of each page, relative to its
+ * language root, to the language roots under which a page with the same relative path exists. The language navigation can therefore
+ * find the language copies of the current page with a single lookup, instead of trying to retrieve the page under every language root.
+ * The language roots are the pages found under the navigation root, down to the navigation's structure depth.
+ * <p>
+ * An index is built once per navigation root, structure depth and user; afterwards, only the subtrees of the pages reported as added,
+ * removed or moved by resource change events are read again, the next time the index is used.
+ */
+@Component(
+        service = {LanguageNavigationIndex.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class LanguageNavigationIndex implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final int MAX_CACHED_INDEXES = 50;
+
+    private final ContentCache<Key, RootIndex> indexes = new ContentCache<>(MAX_CACHED_INDEXES);
+
+    /**
+     * Returns the paths of the language roots under which the language copy of the page found at {@code pagePath} exists. The language
+     * copy of a page under a language root is the page having the same path, relative to its language root, as {@code pagePath} has
+     * relative to the root's depth.
+     *
+     * @param navigationRoot the navigation root
+     * @param structureDepth the number of levels of language roots under the navigation root
+     * @param pagePath       the path of the page for which to find the language copies
+     * @return the paths of the language roots having a copy of the page
+     */
+    @Nonnull
+    public Set<String> getLanguageRoots(@Nonnull Page navigationRoot, int structureDepth, @Nonnull String pagePath) {
+        Resource rootResource = navigationRoot.adaptTo(Resource.class);
+        if (rootResource == null || structureDepth < 1) {
+            return Collections.emptySet();
+        }
+        ResourceResolver resourceResolver = rootResource.getResourceResolver();
+        Key key = new Key(navigationRoot.getPath(), structureDepth, resourceResolver.getUserID());
+        RootIndex index = indexes.computeIfAbsent(key, k -> new RootIndex(k.rootPath, k.structureDepth));
+        return index.getLanguageRoots(resourceResolver, pagePath);
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = new HashSet<>();
+        for (ResourceChange change : changes) {
+            String path = change.getPath();
+            // the content of a page doesn't affect the existence of the page
+            if (Utils.getContentSegmentIndex(path) < 0) {
+                paths.add(path);
+            }
+        }
+        if (paths.isEmpty()) {
+            return;
+        }
+        // the navigation roots themselves were removed or moved
+        indexes.invalidate((key, index) -> Utils.isSameOrDescendant(index.rootPath, paths));
+        for (RootIndex index : indexes.values()) {
+            for (String path : paths) {
+                if (Utils.isSameOrDescendant(path, index.rootPath)) {
+                    index.invalidate(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the part of the {@code path} following its first {@code depth} segments.
+     */
+    @Nonnull
+    static String getRelativePath(@Nonnull String path, int depth) {
+        int position = 0;
+        for (int i = 0; i < depth && position >= 0; i++) {
+            position = path.indexOf('/', position + 1);
+        }
+        return position > 0 ? path.substring(position) : "";
+    }
+
+    /**
+     * The index of a navigation root. The index is built, and the subtrees reported as changed are read again, by the next reader while
+     * holding the index's lock; the changes themselves are recorded without locking the index, so that the listener never waits for a
+     * build.
+     */
+    private static final class RootIndex {
+
+        private final String rootPath;
+        private final int structureDepth;
+        private final int languageRootsMaxDepth;
+        // language root path -> language root depth, guarded by this
+        private final Map<String, Integer> languageRoots = new HashMap<>();
+        // language root depth -> relative page path -> language root paths, guarded by this
+        private final Map<Integer, Map<String, Set<String>>> relativePaths = new HashMap<>();
+        private final Set<String> invalidPaths = ConcurrentHashMap.newKeySet();
+        // guarded by this
+        private boolean built;
+        private volatile boolean languageRootsChanged;
+
+        private RootIndex(@Nonnull String rootPath, int structureDepth) {
+            this.rootPath = rootPath;
+            this.structureDepth = structureDepth;
+            this.languageRootsMaxDepth = StringUtils.countMatches(rootPath, "/") + structureDepth;
+        }
+
+        private synchronized Set<String> getLanguageRoots(@Nonnull ResourceResolver resourceResolver, @Nonnull String pagePath) {
+            PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
+            if (pageManager != null) {
+                if (!built || languageRootsChanged) {
+                    languageRootsChanged = false;
+                    build(pageManager);
+                } else {
+                    // the paths are removed one by one, so that the changes recorded in the meantime are kept for the next reader
+                    for (String invalidPath : invalidPaths) {
+                        if (invalidPaths.remove(invalidPath)) {
+                            reindex(pageManager, invalidPath);
+                        }
+                    }
+                }
+            }
+            Set<String> result = new HashSet<>();
+            for (Map.Entry<Integer, Map<String, Set<String>>> entry : relativePaths.entrySet()) {
+                Set<String> roots = entry.getValue().get(getRelativePath(pagePath, entry.getKey()));
+                if (roots != null) {
+                    result.addAll(roots);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        }
+
+        private void invalidate(@Nonnull String path) {
+            // the changes occurring while the index is being built are applied by the next reader
+            if (StringUtils.countMatches(path, "/") <= languageRootsMaxDepth) {
+                // the language roots themselves might have changed
+                languageRootsChanged = true;
+            } else {
+                invalidPaths.add(path);
+            }
+        }
+
+        private void build(@Nonnull PageManager pageManager) {
+            languageRoots.clear();
+            relativePaths.clear();
+            invalidPaths.clear();
+            Page root = pageManager.getPage(rootPath);
+            if (root != null) {
+                collectLanguageRoots(root, 0);
+                for (Map.Entry<String, Integer> languageRoot : languageRoots.entrySet()) {
+                    index(pageManager.getPage(languageRoot.getKey()), languageRoot.getKey(), languageRoot.getValue());
+                }
+            }
+            built = true;
+        }
+
+        private void collectLanguageRoots(@Nonnull Page page, int depth) {
+            if (depth < structureDepth) {
+                Iterator<Page> children = page.listChildren();
+                while (children.hasNext()) {
+                    Page child = children.next();
+                    languageRoots.put(child.getPath(), StringUtils.countMatches(child.getPath(), "/"));
+                    collectLanguageRoots(child, depth + 1);
+                }
+            }
+        }
+
+        private void reindex(@Nonnull PageManager pageManager, @Nonnull String path) {
+            Page page = pageManager.getPage(path);
+            for (Map.Entry<String, Integer> languageRoot : languageRoots.entrySet()) {
+                String languageRootPath = languageRoot.getKey();
+                if (path.startsWith(languageRootPath + "/")) {
+                    String relativePath = path.substring(languageRootPath.length());
+                    Map<String, Set<String>> pages = relativePaths.get(languageRoot.getValue());
+                    if (pages != null) {
+                        Iterator<Map.Entry<String, Set<String>>> iterator = pages.entrySet().iterator();
+                        while (iterator.hasNext()) {
+                            Map.Entry<String, Set<String>> entry = iterator.next();
+                            if (Utils.isSameOrDescendant(entry.getKey(), relativePath)) {
+                                entry.getValue().remove(languageRootPath);
+                                if (entry.getValue().isEmpty()) {
+                                    iterator.remove();
+                                }
+                            }
+                        }
+                    }
+                    index(page, languageRootPath, languageRoot.getValue());
+                }
+            }
+        }
+
+        private void index(Page page, @Nonnull String languageRootPath, int languageRootDepth) {
+            if (page == null) {
+                return;
+            }
+            relativePaths.computeIfAbsent(languageRootDepth, depth -> new HashMap<>())
+                    .computeIfAbsent(page.getPath().substring(languageRootPath.length()), relativePath -> new HashSet<>())
+                    .add(languageRootPath);
+            Iterator<Page> children = page.listChildren();
+            while (children.hasNext()) {
+                index(children.next(), languageRootPath, languageRootDepth);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String rootPath;
+        private final int structureDepth;
+        private final String userId;
+
+        private Key(@Nonnull String rootPath, int structureDepth, String userId) {
+            this.rootPath = rootPath;
+            this.structureDepth = structureDepth;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return structureDepth == key.structureDepth && rootPath.equals(key.rootPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, structureDepth, userId);
+        }
+    }
+}
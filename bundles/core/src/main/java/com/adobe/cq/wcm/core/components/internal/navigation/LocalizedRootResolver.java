@@ -0,0 +1,226 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.jcr.RangeIterator;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.wcm.api.LanguageManager;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.day.cq.wcm.api.WCMException;
+import com.day.cq.wcm.msm.api.LiveRelationship;
+import com.day.cq.wcm.msm.api.LiveRelationshipManager;
+
+/**
+ * Resolves the localized equivalent of a configured root page (e.g. a navigation or search root) for a current page: the root's
+ * language copy, if the current page belongs to a different language tree, or the root's live copy containing the current page.
+ * <p>
+ * Since the live copy lookups are expensive, the language root and the live copies of each root are cached, so that resolving the
+ * localized root of a page only requires comparing paths, or resolving the current page's language root if it belongs to another
+ * language tree. A root's cached data is evicted when the root or one of its live copies is moved or removed, when the language of the
+ * root or of one of its ancestors changes, or when a live copy is created or its configuration changes.
+ */
+@Component(
+        service = {LocalizedRootResolver.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class LocalizedRootResolver implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final int MAX_CACHED_ROOTS = 1000;
+    private static final String LIVE_SYNC_CONFIG = "cq:LiveSyncConfig";
+    private static final String PN_LANGUAGE = "jcr:language";
+
+    @Reference
+    private LanguageManager languageManager;
+
+    @Reference
+    private LiveRelationshipManager relationshipManager;
+
+    private final ContentCache<Key, RootData> roots = new ContentCache<>(MAX_CACHED_ROOTS);
+
+    /**
+     * Returns the localized equivalent of the {@code root} page for the {@code currentPage}.
+     *
+     * @param root        the configured root page
+     * @param currentPage the current page
+     * @return the root's language copy or live copy matching the current page, or the {@code root} itself if there's no such copy
+     */
+    @Nonnull
+    public Page getLocalizedRoot(@Nonnull Page root, @Nonnull Page currentPage) {
+        PageManager pageManager = currentPage.getPageManager();
+        Resource currentResource = currentPage.adaptTo(Resource.class);
+        Key key = new Key(root.getPath(), currentResource != null ? currentResource.getResourceResolver().getUserID() : null);
+        RootData rootData = roots.get(key, () -> new RootData(root));
+        String currentPagePath = currentPage.getPath();
+        if (rootData.languageRootPath != null && !Utils.isSameOrDescendant(currentPagePath, rootData.languageRootPath)) {
+            Page currentPageLanguageRoot = languageManager.getLanguageRoot(currentPage.getContentResource());
+            if (currentPageLanguageRoot != null) {
+                // check if there's a language copy of the root
+                Page languageCopyRoot = pageManager.getPage(ResourceUtil.normalize(currentPageLanguageRoot.getPath() + "/" +
+                        rootData.languageRelativePath));
+                return languageCopyRoot != null ? languageCopyRoot : root;
+            }
+        }
+        for (String liveCopyPath : rootData.liveCopyPaths) {
+            if (currentPagePath.startsWith(liveCopyPath + "/")) {
+                Page liveCopyRoot = pageManager.getPage(liveCopyPath);
+                if (liveCopyRoot != null) {
+                    return liveCopyRoot;
+                }
+            }
+        }
+        return root;
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> pagePaths = new HashSet<>();
+        Set<String> languagePagePaths = new HashSet<>();
+        for (ResourceChange change : changes) {
+            String path = change.getPath();
+            if (path.contains("/" + LIVE_SYNC_CONFIG)) {
+                // the roots of a new or changed live copy cannot be told from its path
+                roots.invalidateAll();
+                return;
+            }
+            int contentIndex = Utils.getContentSegmentIndex(path);
+            if (contentIndex < 0) {
+                // a page was added, moved or removed: the roots below it and the roots having a live copy below it are evicted
+                pagePaths.add(path);
+            } else if (path.endsWith("/" + JcrConstants.JCR_CONTENT) && isLanguageChange(change)) {
+                languagePagePaths.add(path.substring(0, contentIndex));
+            }
+        }
+        if (!pagePaths.isEmpty() || !languagePagePaths.isEmpty()) {
+            roots.invalidate((key, rootData) -> Utils.isSameOrDescendant(key.rootPath, pagePaths) ||
+                    rootData.hasLiveCopyBelow(pagePaths) || Utils.isSameOrDescendant(key.rootPath, languagePagePaths));
+        }
+    }
+
+    /**
+     * Checks if the {@code change} of a page's content node might have changed the page's language, i.e. if the changed properties are
+     * not known or include the page's language.
+     */
+    private static boolean isLanguageChange(@Nonnull ResourceChange change) {
+        Set<String> propertyNames = new HashSet<>();
+        for (Set<String> names : Arrays.asList(change.getAddedPropertyNames(), change.getChangedPropertyNames(),
+                change.getRemovedPropertyNames())) {
+            if (names == null) {
+                return true;
+            }
+            propertyNames.addAll(names);
+        }
+        return propertyNames.contains(PN_LANGUAGE);
+    }
+
+    @CheckForNull
+    private String getRelativePath(@Nonnull Page root, @Nonnull Page child) {
+        if (child.equals(root)) {
+            return ".";
+        } else if ((child.getPath() + "/").startsWith(root.getPath())) {
+            return child.getPath().substring(root.getPath().length() + 1);
+        }
+        return null;
+    }
+
+    /**
+     * The data of a configured root page from which its localized equivalents are resolved.
+     */
+    private final class RootData {
+        private final String languageRootPath;
+        private final String languageRelativePath;
+        private final List<String> liveCopyPaths = new ArrayList<>();
+
+        private RootData(@Nonnull Page root) {
+            Page languageRoot = languageManager.getLanguageRoot(root.getContentResource());
+            this.languageRootPath = languageRoot != null ? languageRoot.getPath() : null;
+            this.languageRelativePath = languageRoot != null ? getRelativePath(languageRoot, root) : null;
+            RangeIterator liveCopiesIterator = null;
+            try {
+                liveCopiesIterator = relationshipManager.getLiveRelationships(root.adaptTo(Resource.class), null, null);
+            } catch (WCMException e) {
+                // ignore it
+            }
+            if (liveCopiesIterator != null) {
+                while (liveCopiesIterator.hasNext()) {
+                    liveCopyPaths.add(((LiveRelationship) liveCopiesIterator.next()).getTargetPath());
+                }
+            }
+        }
+
+        private boolean hasLiveCopyBelow(@Nonnull Set<String> paths) {
+            for (String liveCopyPath : liveCopyPaths) {
+                if (Utils.isSameOrDescendant(liveCopyPath, paths)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final String rootPath;
+        private final String userId;
+
+        private Key(@Nonnull String rootPath, String userId) {
+            this.rootPath = rootPath;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rootPath.equals(key.rootPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, userId);
+        }
+    }
+}
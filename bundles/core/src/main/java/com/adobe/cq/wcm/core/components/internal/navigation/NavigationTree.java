@@ -0,0 +1,313 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Immutable representation of the page structure under a navigation root, which doesn't hold any reference to the resource resolver
+ * used to build it and can therefore be shared between requests. Each page is represented by a lightweight {@link Node}, holding the
+ * page properties needed by the components walking the page tree, so that the tree can be traversed without going through the
+ * {@link Page} API. The pages hidden in the navigation are left out, together with their subtrees; the pages which are not valid are
+ * kept though, with their on / off times, since the validity of a page depends on the time at which the tree is rendered, not built.
+ */
+public final class NavigationTree {
+
+    private final int structureDepth;
+    private final List<Node> nodes;
+
+    private NavigationTree(int structureDepth, @Nonnull List<Node> nodes) {
+        this.structureDepth = structureDepth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Builds the navigation tree of the {@code rootPage}.
+     *
+     * @param rootPage       the navigation root
+     * @param structureDepth the number of levels to collect under the root, or {@code -1} to collect all the levels
+     * @return the navigation tree
+     */
+    @Nonnull
+    public static NavigationTree build(@Nonnull Page rootPage, int structureDepth) {
+        return index(collect(rootPage, 0, structureDepth), structureDepth);
+    }
+
+    /**
+     * Checks if the children of the pages found at {@code depth} under the navigation root have to be collected.
+     */
+    static boolean collectsChildren(int depth, int structureDepth) {
+        return structureDepth == -1 || depth < structureDepth;
+    }
+
+    @Nonnull
+    private static PageEntry collect(@Nonnull Page page, int depth, int structureDepth) {
+        PageEntry entry = new PageEntry(page);
+        if (collectsChildren(depth, structureDepth)) {
+            Iterator<Page> it = page.listChildren();
+            while (it.hasNext()) {
+                Page child = it.next();
+                if (!child.isHideInNav()) {
+                    entry.children.add(collect(child, depth + 1, structureDepth));
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Creates the navigation tree from the entries collected for its pages, assigning the nodes' indices in pre-order.
+     *
+     * @param root           the entry of the navigation root
+     * @param structureDepth the number of levels collected under the root, or {@code -1} if all the levels were collected
+     * @return the navigation tree
+     */
+    @Nonnull
+    static NavigationTree index(@Nonnull PageEntry root, int structureDepth) {
+        List<Node> nodes = new ArrayList<>();
+        indexNode(nodes, root, -1, 0);
+        return new NavigationTree(structureDepth, Collections.unmodifiableList(nodes));
+    }
+
+    @Nonnull
+    private static Node indexNode(@Nonnull List<Node> nodes, @Nonnull PageEntry entry, int parentIndex, int depth) {
+        // the index of a node has to be reserved before its children are indexed
+        int index = nodes.size();
+        nodes.add(null);
+        List<Node> children = new ArrayList<>(entry.children.size());
+        for (PageEntry child : entry.children) {
+            children.add(indexNode(nodes, child, index, depth + 1));
+        }
+        Node node = new Node(entry, index, parentIndex, depth, Collections.unmodifiableList(children));
+        nodes.set(index, node);
+        return node;
+    }
+
+    /**
+     * @return the number of levels collected under the root, or {@code -1} if all the levels were collected
+     */
+    public int getStructureDepth() {
+        return structureDepth;
+    }
+
+    /**
+     * @return the node of the navigation root
+     */
+    @Nonnull
+    public Node getRoot() {
+        return nodes.get(0);
+    }
+
+    /**
+     * @return all the nodes of the tree, in pre-order; the index of a node in this list is given by {@link Node#getIndex()}
+     */
+    @Nonnull
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the node of the page found at {@code path}, walking down the tree from its root.
+     *
+     * @param path the page path
+     * @return the node of the page, or {@code null} if the page is not part of the tree
+     */
+    @CheckForNull
+    public Node findNode(@Nonnull String path) {
+        Node node = getRoot();
+        while (node != null && !node.getPath().equals(path)) {
+            Node current = node;
+            node = null;
+            for (Node child : current.getChildren()) {
+                if (path.equals(child.getPath()) || path.startsWith(child.getPath() + "/")) {
+                    node = child;
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the parent of a {@code node}.
+     *
+     * @param node the node
+     * @return the parent node, or {@code null} if the node is the root of the tree
+     */
+    @CheckForNull
+    public Node getParent(@Nonnull Node node) {
+        return node.parentIndex >= 0 ? nodes.get(node.parentIndex) : null;
+    }
+
+    /**
+     * A page of the navigation tree.
+     */
+    public static final class Node implements CachedPage {
+
+        private final PageEntry page;
+        private final int index;
+        private final int parentIndex;
+        private final int depth;
+        private final List<Node> children;
+
+        private Node(@Nonnull PageEntry page, int index, int parentIndex, int depth, @Nonnull List<Node> children) {
+            this.page = page;
+            this.index = index;
+            this.parentIndex = parentIndex;
+            this.depth = depth;
+            this.children = children;
+        }
+
+        /**
+         * @return the index of the node in the tree's {@linkplain NavigationTree#getNodes() nodes}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the index of the parent node in the tree's {@linkplain NavigationTree#getNodes() nodes}, or {@code -1} for the root
+         */
+        public int getParentIndex() {
+            return parentIndex;
+        }
+
+        /**
+         * @return the path of the page
+         */
+        @Override
+        @Nonnull
+        public String getPath() {
+            return page.path;
+        }
+
+        /**
+         * @return the depth of the page relative to the navigation root; the navigation root has the depth {@code 0}
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return the page's title
+         * @see Page#getTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getTitle() {
+            return page.title;
+        }
+
+        /**
+         * @return the page's navigation title
+         * @see Page#getNavigationTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getNavigationTitle() {
+            return page.navigationTitle;
+        }
+
+        /**
+         * @return the page's page title
+         * @see Page#getPageTitle()
+         */
+        @Override
+        @CheckForNull
+        public String getPageTitle() {
+            return page.pageTitle;
+        }
+
+        /**
+         * @return the page's vanity URL
+         * @see Page#getVanityUrl()
+         */
+        @Override
+        @CheckForNull
+        public String getVanityUrl() {
+            return page.vanityUrl;
+        }
+
+        /**
+         * @return the page's redirect target, or {@code null} if the page doesn't redirect
+         */
+        @Override
+        @CheckForNull
+        public String getRedirectTarget() {
+            return page.redirectTarget;
+        }
+
+        /**
+         * Checks if the page is valid at the given {@code time}, i.e. if the time is between the page's on and off times.
+         *
+         * @param time the time, in milliseconds
+         * @return {@code true} if the page is valid, {@code false} otherwise
+         * @see Page#isValid()
+         */
+        public boolean isValid(long time) {
+            return page.onTime <= time && time < page.offTime;
+        }
+
+        /**
+         * @return the child pages which are not hidden in the navigation, including the ones which are not valid
+         */
+        @Nonnull
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+
+    /**
+     * The properties of a page, collected while walking the page tree and before the page's position in the tree is known.
+     */
+    static final class PageEntry {
+
+        private final String path;
+        private final String title;
+        private final String navigationTitle;
+        private final String pageTitle;
+        private final String vanityUrl;
+        private final String redirectTarget;
+        private final long onTime;
+        private final long offTime;
+        final List<PageEntry> children = new ArrayList<>();
+
+        PageEntry(@Nonnull Page page) {
+            this.path = page.getPath();
+            this.title = page.getTitle();
+            this.navigationTitle = page.getNavigationTitle();
+            this.pageTitle = page.getPageTitle();
+            this.vanityUrl = page.getVanityUrl();
+            this.redirectTarget = StringUtils.trimToNull(page.getProperties().get(PageImpl.PN_REDIRECT_TARGET, String.class));
+            Calendar pageOnTime = page.getOnTime();
+            Calendar pageOffTime = page.getOffTime();
+            this.onTime = pageOnTime != null ? pageOnTime.getTimeInMillis() : Long.MIN_VALUE;
+            this.offTime = pageOffTime != null ? pageOffTime.getTimeInMillis() : Long.MAX_VALUE;
+        }
+    }
+}
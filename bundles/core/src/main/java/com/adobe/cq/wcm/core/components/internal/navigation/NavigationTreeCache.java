@@ -0,0 +1,158 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Caches the {@link NavigationTree}s built by the navigation components, so that the page structure under a navigation root is
+ * collected only once and then shared by all the pages rendering the navigation. The trees are cached per navigation root, structure
+ * depth and user (since the pages a user can read depend on their permissions) and are evicted as soon as a resource under their root
+ * is changed. Trees of pages with many children are built in parallel (see {@link ParallelNavigationTreeBuilder}), to limit the time
+ * needed to fill the cache after a large part of a site was changed.
+ */
+@Designate(
+        ocd = NavigationTreeCache.Config.class
+)
+@Component(
+        service = {NavigationTreeCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class NavigationTreeCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    @ObjectClassDefinition(
+            name = "AEM Core WCM Components Navigation Tree Cache",
+            description = "Configuration for the cache of the page trees rendered by the navigation components."
+    )
+    @interface Config {
+
+        @AttributeDefinition(
+                name = "Parallelism threshold",
+                description = "Minimum number of child pages a page must have for its subtrees to be collected in parallel when a " +
+                        "navigation tree is built. Set to 0 to always build the navigation trees sequentially."
+        )
+        int parallelismThreshold() default DEFAULT_PARALLELISM_THRESHOLD;
+
+        @AttributeDefinition(
+                name = "Parallelism",
+                description = "Number of threads building the navigation trees in parallel. Set to 0 to use one thread per processor."
+        )
+        int parallelism() default 0;
+    }
+
+    static final int DEFAULT_PARALLELISM_THRESHOLD = 32;
+    private static final int MAX_CACHED_TREES = 500;
+
+    private ForkJoinPool pool;
+    private ParallelNavigationTreeBuilder parallelBuilder;
+
+    private final ContentCache<Key, NavigationTree> trees = new ContentCache<>(MAX_CACHED_TREES);
+
+    @Activate
+    protected void activate(Config config) {
+        if (config.parallelismThreshold() > 0) {
+            int parallelism = config.parallelism() > 0 ? config.parallelism() : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(parallelism);
+            parallelBuilder = new ParallelNavigationTreeBuilder(pool, config.parallelismThreshold());
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            parallelBuilder = null;
+        }
+        trees.invalidateAll();
+    }
+
+    /**
+     * Returns the navigation tree of the {@code rootPage}, building it if it was not already cached.
+     *
+     * @param rootPage       the navigation root
+     * @param structureDepth the number of levels to collect under the root, or {@code -1} to collect all the levels
+     * @return the navigation tree
+     */
+    @Nonnull
+    public NavigationTree getTree(@Nonnull Page rootPage, int structureDepth) {
+        ParallelNavigationTreeBuilder builder = parallelBuilder;
+        return trees.get(new Key(rootPage, structureDepth), () -> builder != null ? builder.build(rootPage, structureDepth) :
+                NavigationTree.build(rootPage, structureDepth));
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        trees.invalidate((key, tree) -> Utils.isOnSameBranch(paths, key.rootPath));
+    }
+
+    private static final class Key {
+        private final String rootPath;
+        private final int structureDepth;
+        private final String userId;
+
+        private Key(@Nonnull Page rootPage, int structureDepth) {
+            this.rootPath = rootPage.getPath();
+            this.structureDepth = structureDepth;
+            Resource resource = rootPage.adaptTo(Resource.class);
+            this.userId = resource != null ? StringUtils.defaultString(resource.getResourceResolver().getUserID()) : "";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return structureDepth == key.structureDepth && rootPath.equals(key.rootPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, structureDepth, userId);
+        }
+    }
+}
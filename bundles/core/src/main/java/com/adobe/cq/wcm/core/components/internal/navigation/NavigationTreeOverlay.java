@@ -0,0 +1,134 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+
+import com.adobe.cq.wcm.core.components.models.NavigationItem;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Applies the state specific to a request on top of a shared {@link NavigationTree}: the pages have to be valid at the time of the
+ * request and are marked as selected if they are the current page, one of its ancestors or if they redirect to it. Since trees are built
+ * per user, they only contain pages readable by the current user. The children of the returned navigation items are only collected
+ * when they are first requested.
+ */
+public class NavigationTreeOverlay {
+
+    private final SlingHttpServletRequest request;
+    private final Page currentPage;
+    private final PageManager pageManager;
+    private final int levelOffset;
+    private final RedirectChainCache redirectChainCache;
+    private final long time;
+
+    /**
+     * @param request            the current request
+     * @param currentPage        the page for which the navigation is rendered
+     * @param levelOffset        the offset added to the depth of the tree nodes to obtain the level of the navigation items
+     * @param redirectChainCache the cache used to resolve the redirect chains of the navigation items' pages, or {@code null} to follow
+     *                           the chains on every request
+     */
+    public NavigationTreeOverlay(@Nonnull SlingHttpServletRequest request, @Nonnull Page currentPage, int levelOffset,
+                                 @Nullable RedirectChainCache redirectChainCache) {
+        this.request = request;
+        this.currentPage = currentPage;
+        this.pageManager = currentPage.getPageManager();
+        this.levelOffset = levelOffset;
+        this.redirectChainCache = redirectChainCache;
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the navigation items of the children of a tree {@code node}.
+     *
+     * @param node the tree node
+     * @return the navigation items
+     */
+    @Nonnull
+    public List<NavigationItem> getItems(@Nonnull NavigationTree.Node node) {
+        return getItems(node, -1);
+    }
+
+    /**
+     * Returns the navigation item of the page represented by a tree {@code node}. The page is only resolved if the item needs a property
+     * which is not held by the node.
+     *
+     * @param page the page, if already resolved by the caller
+     * @param node the page's tree node
+     * @return the navigation item
+     */
+    @Nonnull
+    public NavigationItem getItem(@Nullable Page page, @Nonnull NavigationTree.Node node) {
+        return getItem(page, node, -1);
+    }
+
+    /**
+     * Returns the navigation item of the page represented by a tree {@code node}, with its descendants collected up to {@code depth}
+     * levels below the node.
+     *
+     * @param page  the page, if already resolved by the caller
+     * @param node  the page's tree node
+     * @param depth the number of levels to collect under the node, or {@code -1} to collect all the levels of the tree
+     * @return the navigation item
+     */
+    @Nonnull
+    public NavigationItem getItem(@Nullable Page page, @Nonnull NavigationTree.Node node, int depth) {
+        return createItem(page, node, depth == -1 ? -1 : node.getDepth() + depth);
+    }
+
+    @Nonnull
+    private NavigationItem createItem(@Nullable Page page, @Nonnull NavigationTree.Node node, int maxDepth) {
+        return new CachedNavigationItem(request, pageManager, node, page, isSelected(node), node.getDepth() + levelOffset,
+                () -> getItems(node, maxDepth), redirectChainCache);
+    }
+
+    /**
+     * Returns the navigation items of the children of a tree {@code node}, if the node is above {@code maxDepth}.
+     */
+    @Nonnull
+    private List<NavigationItem> getItems(@Nonnull NavigationTree.Node node, int maxDepth) {
+        List<NavigationItem> items = new ArrayList<>();
+        if (!NavigationTree.collectsChildren(node.getDepth(), maxDepth)) {
+            return items;
+        }
+        for (NavigationTree.Node child : node.getChildren()) {
+            if (!child.isValid(time)) {
+                continue;
+            }
+            items.add(createItem(null, child, maxDepth));
+        }
+        return items;
+    }
+
+    /**
+     * Checks if the page of a tree {@code node} is selected, i.e. if it is the current page, one of its ancestors or if it redirects to
+     * the current page.
+     */
+    private boolean isSelected(@Nonnull NavigationTree.Node node) {
+        String currentPagePath = currentPage.getPath();
+        return currentPagePath.equals(node.getPath()) ||
+                currentPagePath.startsWith(node.getPath() + "/") ||
+                currentPagePath.equals(node.getRedirectTarget());
+    }
+}
@@ -0,0 +1,201 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Builds {@link NavigationTree}s by walking independent subtrees of the page structure in parallel, on a fork-join pool. The children
+ * of a page are walked in parallel only if the page has at least {@code threshold} children: they are then split into one range per
+ * thread of the pool, and each range is walked by its own task. Since resource resolvers cannot be shared between threads, a task only
+ * reads pages through its own clone of the resource resolver, which is created by the thread owning the cloned resolver before the task
+ * is handed over to the pool, and closed by the task; the caller's resource resolver is therefore only used on the calling thread. The
+ * collected subtrees are merged in the order of the pages, so the built tree is identical to the one built by
+ * {@link NavigationTree#build(Page, int)}.
+ */
+final class ParallelNavigationTreeBuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelNavigationTreeBuilder.class);
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param pool      the pool running the walks
+     * @param threshold the minimum number of children a page must have for its subtrees to be walked in parallel
+     */
+    ParallelNavigationTreeBuilder(@Nonnull ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Builds the navigation tree of the {@code rootPage}.
+     *
+     * @param rootPage       the navigation root
+     * @param structureDepth the number of levels to collect under the root, or {@code -1} to collect all the levels
+     * @return the navigation tree
+     */
+    @Nonnull
+    NavigationTree build(@Nonnull Page rootPage, int structureDepth) {
+        NavigationTree.PageEntry root = collect(rootPage, 0, structureDepth);
+        return NavigationTree.index(root, structureDepth);
+    }
+
+    /**
+     * Collects the subtree of the {@code parent}; must be called by the thread owning the parent's resource resolver.
+     */
+    @Nonnull
+    private NavigationTree.PageEntry collect(@Nonnull Page parent, int parentDepth, int structureDepth) {
+        NavigationTree.PageEntry entry = new NavigationTree.PageEntry(parent);
+        if (!NavigationTree.collectsChildren(parentDepth, structureDepth)) {
+            return entry;
+        }
+        List<Page> children = new ArrayList<>();
+        Iterator<Page> it = parent.listChildren();
+        while (it.hasNext()) {
+            Page child = it.next();
+            if (!child.isHideInNav()) {
+                children.add(child);
+            }
+        }
+        int childDepth = parentDepth + 1;
+        NavigationTree.PageEntry[] entries = new NavigationTree.PageEntry[children.size()];
+        Resource resource = parent.adaptTo(Resource.class);
+        if (resource != null && children.size() >= threshold && NavigationTree.collectsChildren(childDepth, structureDepth)) {
+            // the first range is walked by the current thread, while the other ranges are walked by the pool
+            int ranges = Math.min(children.size(), pool.getParallelism() + 1);
+            List<CollectTask> tasks = new ArrayList<>(ranges - 1);
+            for (int range = 1; range < ranges; range++) {
+                CollectTask task = fork(resource.getResourceResolver(), children, children.size() * range / ranges,
+                        children.size() * (range + 1) / ranges, childDepth, structureDepth);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            for (int i = 0; i < children.size() / ranges; i++) {
+                entries[i] = collect(children.get(i), childDepth, structureDepth);
+            }
+            for (CollectTask task : tasks) {
+                NavigationTree.PageEntry[] collected = task.join();
+                System.arraycopy(collected, 0, entries, task.start, collected.length);
+            }
+        }
+        // the pages which were not walked by a task are walked by the current thread
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == null) {
+                entries[i] = collect(children.get(i), childDepth, structureDepth);
+            }
+        }
+        entry.children.addAll(Arrays.asList(entries));
+        return entry;
+    }
+
+    /**
+     * Forks the walk of the {@code children}'s subtrees from {@code start} (inclusive) to {@code end} (exclusive), using a clone of the
+     * {@code resourceResolver} created by the current thread.
+     *
+     * @return the forked task, or {@code null} if the subtrees have to be walked by the current thread
+     */
+    @CheckForNull
+    private CollectTask fork(@Nonnull ResourceResolver resourceResolver, @Nonnull List<Page> children, int start, int end, int childDepth,
+                             int structureDepth) {
+        ResourceResolver clonedResolver;
+        try {
+            clonedResolver = resourceResolver.clone(null);
+        } catch (LoginException | RuntimeException e) {
+            LOGGER.debug("Unable to clone the resource resolver; the subtrees of {} will not be walked in parallel.",
+                    children.get(start).getPath(), e);
+            return null;
+        }
+        List<String> paths = new ArrayList<>(end - start);
+        for (Page child : children.subList(start, end)) {
+            paths.add(child.getPath());
+        }
+        CollectTask task = new CollectTask(clonedResolver, paths, start, childDepth, structureDepth);
+        try {
+            if (ForkJoinTask.getPool() == pool) {
+                task.fork();
+            } else {
+                pool.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            // the task will never run and close its resource resolver
+            clonedResolver.close();
+            LOGGER.debug("The pool rejected the walk of the subtrees of {}; they will be walked by the current thread.",
+                    children.get(start).getPath(), e);
+            return null;
+        }
+        return task;
+    }
+
+    /**
+     * Walks the subtrees of a range of sibling pages through its own resource resolver, which it closes once the walk completes. The
+     * entries of the pages which cannot be read through the task's resource resolver are left {@code null}.
+     */
+    private final class CollectTask extends RecursiveTask<NavigationTree.PageEntry[]> {
+
+        private final ResourceResolver resourceResolver;
+        private final List<String> paths;
+        private final int start;
+        private final int depth;
+        private final int structureDepth;
+
+        private CollectTask(@Nonnull ResourceResolver resourceResolver, @Nonnull List<String> paths, int start, int depth,
+                            int structureDepth) {
+            this.resourceResolver = resourceResolver;
+            this.paths = paths;
+            this.start = start;
+            this.depth = depth;
+            this.structureDepth = structureDepth;
+        }
+
+        @Override
+        protected NavigationTree.PageEntry[] compute() {
+            try {
+                NavigationTree.PageEntry[] entries = new NavigationTree.PageEntry[paths.size()];
+                for (int i = 0; i < entries.length; i++) {
+                    Resource resource = resourceResolver.getResource(paths.get(i));
+                    Page page = resource != null ? resource.adaptTo(Page.class) : null;
+                    if (page != null) {
+                        entries[i] = collect(page, depth, structureDepth);
+                    }
+                }
+                return entries;
+            } finally {
+                resourceResolver.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Caches the final targets of the redirect chains of pages, so that the list, navigation, breadcrumb and search result items don't
+ * have to follow the {@code cq:redirectTarget} properties of their pages on every render. The chains are cached per page and user; a
+ * chain is evicted as soon as one of the pages it goes through (or the missing page it ends at) is changed.
+ */
+@Component(
+        service = {RedirectChainCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class RedirectChainCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedirectChainCache.class);
+
+    private static final int MAX_CACHED_CHAINS = 10000;
+
+    private final ContentCache<Key, Chain> chains = new ContentCache<>(MAX_CACHED_CHAINS);
+
+    /**
+     * Returns the page at the end of the redirect chain starting at {@code page}, following the chain if it was not already cached.
+     *
+     * @param page the page
+     * @return the final redirect target, the {@code page} itself if it doesn't redirect, or {@code null} if the chain ends at a page
+     * which doesn't exist
+     */
+    @CheckForNull
+    public Page getRedirectTarget(@Nonnull Page page) {
+        Chain chain = chains.get(new Key(page), () -> Chain.follow(page));
+        if (chain.targetPath == null) {
+            return null;
+        }
+        return chain.targetPath.equals(page.getPath()) ? page : page.getPageManager().getPage(chain.targetPath);
+    }
+
+    /**
+     * Follows the redirect chain starting at {@code page}, without caching it.
+     *
+     * @param page the page
+     * @return the final redirect target, the {@code page} itself if it doesn't redirect, or {@code null} if the chain ends at a page
+     * which doesn't exist
+     */
+    @CheckForNull
+    public static Page resolveRedirectTarget(@Nonnull Page page) {
+        Chain chain = Chain.follow(page);
+        if (chain.targetPath == null) {
+            return null;
+        }
+        return chain.targetPath.equals(page.getPath()) ? page : page.getPageManager().getPage(chain.targetPath);
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> pagePaths = new HashSet<>();
+        for (ResourceChange change : changes) {
+            pagePaths.add(Utils.getContainingPagePath(change.getPath()));
+        }
+        chains.invalidate((key, chain) -> chain.isGoingThrough(pagePaths));
+    }
+
+    private static final class Chain {
+        private final List<String> paths;
+        private final String targetPath;
+
+        private Chain(@Nonnull List<String> paths, String targetPath) {
+            this.paths = paths;
+            this.targetPath = targetPath;
+        }
+
+        private static Chain follow(@Nonnull Page page) {
+            Page result = page;
+            String redirectTarget;
+            PageManager pageManager = page.getPageManager();
+            Set<String> redirectCandidates = new LinkedHashSet<>();
+            redirectCandidates.add(page.getPath());
+            while (result != null &&
+                    StringUtils.isNotEmpty((redirectTarget = result.getProperties().get(PageImpl.PN_REDIRECT_TARGET, String.class)))) {
+                result = pageManager.getPage(redirectTarget);
+                if (result != null) {
+                    if (!redirectCandidates.add(result.getPath())) {
+                        LOGGER.warn("Detected redirect loop for the following pages: {}.", redirectCandidates.toString());
+                        break;
+                    }
+                } else {
+                    // the chain has to be followed again if the missing target is created
+                    redirectCandidates.add(redirectTarget);
+                }
+            }
+            return new Chain(new ArrayList<>(redirectCandidates), result != null ? result.getPath() : null);
+        }
+
+        private boolean isGoingThrough(@Nonnull Set<String> changedPaths) {
+            for (String path : paths) {
+                if (Utils.isSameOrDescendant(path, changedPaths)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final String path;
+        private final String userId;
+
+        private Key(@Nonnull Page page) {
+            this.path = page.getPath();
+            Resource resource = page.adaptTo(Resource.class);
+            this.userId = resource != null ? StringUtils.defaultString(resource.getResourceResolver().getUserID()) : "";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return path.equals(key.path) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, userId);
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Indexes the titles and navigation titles of the pages under a search root in a prefix trie, so that the search component can suggest
+ * pages while a visitor is typing without running a full-text query for each keystroke. Every word of a title is indexed, so that a
+ * page is suggested if each word of the search term is the beginning of one of the words of its titles; the most recently modified
+ * pages are suggested first. Each node of the trie keeps the most recent pages of its subtree, so that the suggestions are read from a
+ * single node, whatever the number of pages matching the search term.
+ * <p>
+ * An index is built once per search root and user; afterwards, only the pages reported as changed by resource change events are read
+ * again, the next time the index is used.
+ */
+@Component(
+        service = {PageTitleIndex.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class PageTitleIndex implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    private static final int MAX_CACHED_INDEXES = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Entry> MOST_RECENT_FIRST = Comparator.comparingLong((Entry entry) -> entry.lastModified)
+            .reversed().thenComparing(entry -> entry.path);
+
+    private final ContentCache<Key, SiteIndex> indexes = new ContentCache<>(MAX_CACHED_INDEXES);
+
+    /**
+     * Returns the paths of the pages under {@code root} whose titles match the {@code searchTerm}, the most recently modified first.
+     *
+     * @param root       the search root
+     * @param searchTerm the (partial) search term
+     * @param limit      the maximum number of pages to return; at most {@value #MAX_SUGGESTIONS} pages are suggested
+     * @return the paths of the suggested pages
+     */
+    @Nonnull
+    public List<String> getSuggestions(@Nonnull Page root, @Nonnull String searchTerm, int limit) {
+        Resource rootResource = root.adaptTo(Resource.class);
+        String[] words = getWords(searchTerm);
+        if (rootResource == null || words.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ResourceResolver resourceResolver = rootResource.getResourceResolver();
+        Key key = new Key(root.getPath(), resourceResolver.getUserID());
+        SiteIndex index = indexes.computeIfAbsent(key, k -> new SiteIndex(k.rootPath));
+        return index.getSuggestions(resourceResolver, words, limit);
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        // the search roots themselves were removed or moved
+        indexes.invalidate((key, index) -> Utils.isSameOrDescendant(index.rootPath, paths));
+        for (SiteIndex index : indexes.values()) {
+            for (String path : paths) {
+                if (Utils.isSameOrDescendant(path, index.rootPath)) {
+                    int contentIndex = Utils.getContentSegmentIndex(path);
+                    if (contentIndex >= 0) {
+                        // only the content of a page changed
+                        index.invalidate(path.substring(0, contentIndex), false);
+                    } else {
+                        // pages were added, removed or moved
+                        index.invalidate(path, true);
+                    }
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private static String[] getWords(String text) {
+        if (StringUtils.isBlank(text)) {
+            return new String[0];
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(StringUtils::isNotEmpty)
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * The index of a search root. The index is built, and the pages reported as changed are read again, by the first reader which finds
+     * the index outdated, without locking the index; the index is only locked while it is read or while the read pages are applied to
+     * it. Readers arriving while the index is being built get no suggestions, instead of waiting for the site to be walked.
+     */
+    private static final class SiteIndex {
+
+        private final String rootPath;
+        // guarded by this
+        private final Map<String, Entry> entries = new HashMap<>();
+        // guarded by this
+        private final TrieNode trie = new TrieNode();
+        // the changes are recorded without locking the index, and applied by the next reader
+        private final ConcurrentMap<String, Boolean> invalidPaths = new ConcurrentHashMap<>();
+        private final AtomicBoolean updating = new AtomicBoolean();
+        private volatile boolean built;
+
+        private SiteIndex(@Nonnull String rootPath) {
+            this.rootPath = rootPath;
+        }
+
+        private List<String> getSuggestions(@Nonnull ResourceResolver resourceResolver, @Nonnull String[] words, int limit) {
+            PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
+            if (pageManager != null && (!built || !invalidPaths.isEmpty()) && updating.compareAndSet(false, true)) {
+                try {
+                    update(pageManager);
+                } finally {
+                    updating.set(false);
+                }
+            }
+            // the most selective word is looked up, the other words are matched against the found pages
+            String longestWord = words[0];
+            for (String word : words) {
+                if (word.length() > longestWord.length()) {
+                    longestWord = word;
+                }
+            }
+            List<String> paths = new ArrayList<>();
+            synchronized (this) {
+                TrieNode node = trie.find(longestWord);
+                if (node != null) {
+                    for (Entry entry : node.top) {
+                        if (entry.matches(words)) {
+                            paths.add(entry.path);
+                            if (paths.size() >= limit) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            return paths;
+        }
+
+        private void invalidate(@Nonnull String path, boolean deep) {
+            // the changes occurring while the index is being built are applied once it is built
+            if (built || updating.get()) {
+                invalidPaths.merge(path, deep, Boolean::logicalOr);
+            }
+        }
+
+        private void update(@Nonnull PageManager pageManager) {
+            if (!built) {
+                List<Entry> found = new ArrayList<>();
+                collect(pageManager.getPage(rootPath), true, found);
+                synchronized (this) {
+                    for (Entry entry : found) {
+                        add(entry);
+                    }
+                }
+                built = true;
+            }
+            Map<String, Boolean> paths = new HashMap<>();
+            for (String path : invalidPaths.keySet()) {
+                Boolean deep = invalidPaths.remove(path);
+                if (deep != null) {
+                    paths.put(path, deep);
+                }
+            }
+            Map<String, List<Entry>> found = new HashMap<>();
+            for (Map.Entry<String, Boolean> path : paths.entrySet()) {
+                List<Entry> pathEntries = new ArrayList<>();
+                collect(pageManager.getPage(path.getKey()), path.getValue(), pathEntries);
+                found.put(path.getKey(), pathEntries);
+            }
+            synchronized (this) {
+                for (Map.Entry<String, Boolean> path : paths.entrySet()) {
+                    remove(path.getKey(), path.getValue());
+                    for (Entry entry : found.get(path.getKey())) {
+                        add(entry);
+                    }
+                }
+            }
+        }
+
+        private void add(@Nonnull Entry entry) {
+            Entry previous = entries.put(entry.path, entry);
+            if (previous != null) {
+                trie.remove(previous);
+            }
+            trie.add(entry);
+        }
+
+        private void remove(@Nonnull String path, boolean deep) {
+            if (deep) {
+                Iterator<Entry> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (Utils.isSameOrDescendant(entry.path, path)) {
+                        trie.remove(entry);
+                        iterator.remove();
+                    }
+                }
+            } else {
+                Entry entry = entries.remove(path);
+                if (entry != null) {
+                    trie.remove(entry);
+                }
+            }
+        }
+
+        /**
+         * Reads the entries of the {@code page} and, if {@code deep}, of its descendants, without locking the index.
+         */
+        private void collect(Page page, boolean deep, @Nonnull List<Entry> found) {
+            if (page == null) {
+                return;
+            }
+            if (!page.getPath().equals(rootPath)) {
+                Entry entry = new Entry(page);
+                if (entry.words.length > 0) {
+                    found.add(entry);
+                }
+            }
+            if (deep) {
+                Iterator<Page> children = page.listChildren();
+                while (children.hasNext()) {
+                    collect(children.next(), true, found);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String path;
+        private final String[] words;
+        private final long lastModified;
+
+        private Entry(@Nonnull Page page) {
+            this.path = page.getPath();
+            Set<String> titleWords = new LinkedHashSet<>();
+            titleWords.addAll(Arrays.asList(getWords(page.getTitle())));
+            titleWords.addAll(Arrays.asList(getWords(page.getNavigationTitle())));
+            this.words = titleWords.toArray(new String[0]);
+            Calendar pageLastModified = page.getLastModified();
+            this.lastModified = pageLastModified != null ? pageLastModified.getTimeInMillis() : 0;
+        }
+
+        private boolean matches(@Nonnull String[] searchWords) {
+            for (String searchWord : searchWords) {
+                boolean found = false;
+                for (String word : words) {
+                    if (word.startsWith(searchWord)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A node of the prefix trie, holding the entries having a word that ends at this node, as well as the most recent entries having a
+     * word that starts with the node's prefix, so that the suggestions for a prefix are read without visiting the node's subtree. The
+     * children are kept in arrays sorted by their character, to keep the trie compact; the nodes left without entries and children are
+     * removed.
+     */
+    private static final class TrieNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] keys = NO_KEYS;
+        private TrieNode[] children = NO_CHILDREN;
+        private Set<Entry> entries;
+        private List<Entry> top = Collections.emptyList();
+
+        private void add(@Nonnull Entry entry) {
+            for (String word : entry.words) {
+                TrieNode node = this;
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.getOrAddChild(word.charAt(i));
+                    node.offer(entry);
+                }
+                if (node.entries == null) {
+                    node.entries = new HashSet<>();
+                }
+                node.entries.add(entry);
+            }
+        }
+
+        private void remove(@Nonnull Entry entry) {
+            // the entry is removed from all its words before the top entries are updated, since the words can share prefixes
+            for (String word : entry.words) {
+                TrieNode node = find(word);
+                if (node != null && node.entries != null) {
+                    node.entries.remove(entry);
+                    if (node.entries.isEmpty()) {
+                        node.entries = null;
+                    }
+                }
+            }
+            for (String word : entry.words) {
+                removeFromTop(entry, word, 0);
+            }
+        }
+
+        private TrieNode find(@Nonnull String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.keys, prefix.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return node;
+        }
+
+        /**
+         * Adds the {@code entry} to the top entries of this node, if it is recent enough.
+         */
+        private void offer(@Nonnull Entry entry) {
+            if (top.contains(entry)) {
+                return;
+            }
+            int index = Collections.binarySearch(top, entry, MOST_RECENT_FIRST);
+            int insertion = index >= 0 ? index : -index - 1;
+            if (insertion < MAX_SUGGESTIONS) {
+                if (top.isEmpty()) {
+                    top = new ArrayList<>();
+                }
+                top.add(insertion, entry);
+                if (top.size() > MAX_SUGGESTIONS) {
+                    top.remove(MAX_SUGGESTIONS);
+                }
+            }
+        }
+
+        /**
+         * Removes the {@code entry} from the top entries of the nodes along the {@code word}, from the node reached by the word's first
+         * {@code length} characters, refilling the top entries from the children and pruning the empty nodes, bottom-up.
+         */
+        private void removeFromTop(@Nonnull Entry entry, @Nonnull String word, int length) {
+            if (length < word.length()) {
+                int index = Arrays.binarySearch(keys, word.charAt(length));
+                if (index < 0) {
+                    return;
+                }
+                TrieNode child = children[index];
+                child.removeFromTop(entry, word, length + 1);
+                if (child.entries == null && child.children.length == 0) {
+                    removeChild(index);
+                }
+            }
+            if (top.remove(entry)) {
+                List<Entry> candidates = new ArrayList<>();
+                if (entries != null) {
+                    candidates.addAll(entries);
+                }
+                for (TrieNode child : children) {
+                    candidates.addAll(child.top);
+                }
+                candidates.sort(MOST_RECENT_FIRST);
+                top = new ArrayList<>();
+                for (Entry candidate : candidates) {
+                    if (top.size() >= MAX_SUGGESTIONS) {
+                        break;
+                    }
+                    if (top.isEmpty() || top.get(top.size() - 1) != candidate) {
+                        top.add(candidate);
+                    }
+                }
+            }
+        }
+
+        private TrieNode getOrAddChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertion = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            TrieNode child = new TrieNode();
+            newKeys[insertion] = key;
+            newChildren[insertion] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(int index) {
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            TrieNode[] newChildren = new TrieNode[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    private static final class Key {
+        private final String rootPath;
+        private final String userId;
+
+        private Key(@Nonnull String rootPath, String userId) {
+            this.rootPath = rootPath;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rootPath.equals(key.rootPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, userId);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+
+/**
+ * Caches the settings of the search components, as read by the search results endpoint: the configured search root, the results size
+ * and the search term minimum length, read from the component and its policy. The settings are cached per component and user; since a
+ * search component found in the structure of a page's template is identified by its path in the template, its settings are shared by
+ * all the pages using the template. The search root is localized for each page by the endpoint, through the
+ * {@link com.adobe.cq.wcm.core.components.internal.navigation.LocalizedRootResolver}, so the cached settings don't depend on the
+ * language or live copies of the pages.
+ * <p>
+ * Since templates and policies are shared by many components, all the settings are evicted when anything is changed under
+ * {@code /conf}. A change to the content of a page only evicts the settings of the components on the changed branch.
+ */
+@Component(
+        service = {SearchConfigurationCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.PATHS + "=" + SearchConfigurationCache.CONF_ROOT,
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class SearchConfigurationCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    static final String CONF_ROOT = "/conf";
+    private static final int MAX_CACHED_CONFIGURATIONS = 1000;
+
+    private final ContentCache<Key, Configuration> configurations = new ContentCache<>(MAX_CACHED_CONFIGURATIONS);
+
+    /**
+     * Returns the settings of a search component, resolving them through the {@code loader} if they were not already cached.
+     *
+     * @param key    the key of the search component
+     * @param loader resolves the component's settings
+     * @return the component's settings
+     */
+    @Nonnull
+    public Configuration getConfiguration(@Nonnull Key key, @Nonnull Supplier<Configuration> loader) {
+        return configurations.get(key, loader);
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        if (Utils.isOnSameBranch(paths, CONF_ROOT)) {
+            configurations.invalidateAll();
+        } else {
+            configurations.invalidate((key, configuration) -> Utils.isOnSameBranch(paths, key.componentPath));
+        }
+    }
+
+    /**
+     * Identifies a search component.
+     */
+    public static final class Key {
+        private final String componentPath;
+        private final String userId;
+
+        /**
+         * @param componentPath the path of the search component, on a page or in the structure of a template
+         * @param userId        the ID of the user running the search
+         */
+        public Key(@Nonnull String componentPath, @Nullable String userId) {
+            this.componentPath = componentPath;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return componentPath.equals(key.componentPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(componentPath, userId);
+        }
+    }
+
+    /**
+     * The settings of a search component.
+     */
+    public static final class Configuration {
+        private final String searchRoot;
+        private final int resultsSize;
+        private final int searchTermMinimumLength;
+
+        /**
+         * @param searchRoot              the configured search root, before it is localized for the current page
+         * @param resultsSize             the maximum number of hits to return, or {@code 0} to return all the hits
+         * @param searchTermMinimumLength the minimum length of the search terms
+         */
+        public Configuration(@Nullable String searchRoot, int resultsSize, int searchTermMinimumLength) {
+            this.searchRoot = searchRoot;
+            this.resultsSize = resultsSize;
+            this.searchTermMinimumLength = searchTermMinimumLength;
+        }
+
+        @CheckForNull
+        public String getSearchRoot() {
+            return searchRoot;
+        }
+
+        public int getResultsSize() {
+            return resultsSize;
+        }
+
+        public int getSearchTermMinimumLength() {
+            return searchTermMinimumLength;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.internal.Utils;
+
+/**
+ * Caches the results of the search component's queries, i.e. the paths of the hits found for a search term under a search root, so
+ * that popular search terms (especially the prefixes sent while a visitor is typing) don't hit the query engine on every request. The
+ * results are cached per normalised search term, search root, results page and user (since the hits a user can read depend on their
+ * permissions).
+ * <p>
+ * A result expires after the configured time to live and is evicted as soon as a resource is changed under its search root, e.g. when a
+ * page under the root is activated.
+ */
+@Designate(
+        ocd = SearchResultCache.Config.class
+)
+@Component(
+        service = {SearchResultCache.class, ResourceChangeListener.class},
+        property = {
+                ResourceChangeListener.PATHS + "=/content",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
+        }
+)
+public class SearchResultCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    @ObjectClassDefinition(
+            name = "AEM Core WCM Components Search Result Cache",
+            description = "Configuration for the cache of the results returned by the search component's queries."
+    )
+    @interface Config {
+
+        @AttributeDefinition(
+                name = "Time to live",
+                description = "Number of seconds a search result is cached. Set to 0 to disable the cache."
+        )
+        long timeToLive() default DEFAULT_TIME_TO_LIVE;
+
+        @AttributeDefinition(
+                name = "Maximum size",
+                description = "Maximum number of search results kept in the cache."
+        )
+        int maxSize() default DEFAULT_MAX_SIZE;
+    }
+
+    static final long DEFAULT_TIME_TO_LIVE = 60;
+    static final int DEFAULT_MAX_SIZE = 1000;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private long timeToLive = TimeUnit.SECONDS.toMillis(DEFAULT_TIME_TO_LIVE);
+
+    private volatile ContentCache<Key, Result> results = new ContentCache<>(DEFAULT_MAX_SIZE);
+
+    @Activate
+    protected void activate(Config config) {
+        timeToLive = TimeUnit.SECONDS.toMillis(Math.max(0, config.timeToLive()));
+        results = new ContentCache<>(Math.max(0, config.maxSize()));
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        results.invalidateAll();
+    }
+
+    /**
+     * Returns the paths of the hits found for a search, running the search through the {@code loader} if its result was not already
+     * cached or has expired.
+     *
+     * @param key    the key of the search
+     * @param loader runs the search
+     * @return the paths of the hits, in the order of the search result
+     */
+    @Nonnull
+    public List<String> getHitPaths(@Nonnull Key key, @Nonnull Supplier<Collection<String>> loader) {
+        ContentCache<Key, Result> cache = results;
+        long now = clock.getAsLong();
+        Result result = cache.get(key);
+        if (result == null || result.expires <= now) {
+            long resultGeneration = cache.getGeneration();
+            result = new Result(loader.get(), now + timeToLive);
+            if (timeToLive <= 0 || !cache.put(key, result, resultGeneration)) {
+                cache.remove(key);
+            }
+        }
+        return result.hitPaths;
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        Set<String> paths = Utils.getChangedPaths(changes);
+        results.invalidate((key, result) -> Utils.isOnSameBranch(paths, key.searchRootPath));
+    }
+
+    /**
+     * Identifies a search.
+     */
+    public static final class Key {
+        private final String fulltext;
+        private final String searchRootPath;
+        private final long resultsOffset;
+        private final int resultsSize;
+        private final String userId;
+
+        /**
+         * @param fulltext       the search term; terms differing only in white space are considered the same, but not terms
+         *                       differing in case, since the full-text syntax gives a meaning to upper case words such as {@code OR}
+         * @param searchRootPath the path of the page under which the search is run
+         * @param resultsOffset  the index of the first hit to return
+         * @param resultsSize    the maximum number of hits to return, or {@code 0} to return all the hits
+         * @param userId         the ID of the user running the search
+         */
+        public Key(@Nonnull String fulltext, @Nonnull String searchRootPath, long resultsOffset, int resultsSize,
+                   @Nullable String userId) {
+            this.fulltext = StringUtils.normalizeSpace(fulltext);
+            this.searchRootPath = searchRootPath;
+            this.resultsOffset = resultsOffset;
+            this.resultsSize = resultsSize;
+            this.userId = StringUtils.defaultString(userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return resultsOffset == key.resultsOffset && resultsSize == key.resultsSize && fulltext.equals(key.fulltext) &&
+                    searchRootPath.equals(key.searchRootPath) && userId.equals(key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fulltext, searchRootPath, resultsOffset, resultsSize, userId);
+        }
+    }
+
+    private static final class Result {
+        private final List<String> hitPaths;
+        private final long expires;
+
+        private Result(Collection<String> hitPaths, long expires) {
+            this.hitPaths = Collections.unmodifiableList(new ArrayList<>(hitPaths));
+            this.expires = expires;
+        }
+    }
+}
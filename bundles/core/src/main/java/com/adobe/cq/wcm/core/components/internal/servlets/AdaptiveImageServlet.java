@@ -45,6 +45,7 @@ import org.apache.sling.commons.mime.MimeTypeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.wcm.core.components.internal.AssetLookup;
 import com.adobe.cq.wcm.core.components.internal.models.v1.AbstractImageDelegatingModel;
 import com.adobe.cq.wcm.core.components.internal.resource.ImageResourceWrapper;
 import com.adobe.cq.wcm.core.components.models.Image;
@@ -76,11 +77,15 @@ import com.google.common.base.Joiner;
  *   <li>{@code RTs=['core/wcm/components/image'], selectors=['img']} - for Image v1 URLs</li>
  *   <li>{@code RTs=['core/wcm/components/image','cq/Page'], selectors=['coreimg']} - for Image v2 URLs</li>
  * </ul>
+ *
+ * Requests using the {@link #LQIP_SELECTOR} as a second selector (e.g. {@code image.coreimg.lqip.jpeg}) will be answered with a
+ * low-quality image placeholder, rendered by the {@link ImagePlaceholderRenderer}.
  */
 public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
 
     public static final String DEFAULT_SELECTOR = "img";
     public static final String CORE_DEFAULT_SELECTOR = "coreimg";
+    public static final String LQIP_SELECTOR = "lqip";
     private static final String IMAGE_RESOURCE_TYPE = "core/wcm/components/image";
     static final int DEFAULT_RESIZE_WIDTH = 1280;
     private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveImageServlet.class);
@@ -91,10 +96,18 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
 
     private AssetStore assetStore;
 
+    private ImagePlaceholderRenderer placeholderRenderer;
+
     public AdaptiveImageServlet(MimeTypeService mimeTypeService, AssetStore assetStore, int defaultResizeWidth) {
+        this(mimeTypeService, assetStore, defaultResizeWidth, null);
+    }
+
+    public AdaptiveImageServlet(MimeTypeService mimeTypeService, AssetStore assetStore, int defaultResizeWidth,
+                                @Nullable ImagePlaceholderRenderer placeholderRenderer) {
         this.mimeTypeService = mimeTypeService;
         this.assetStore = assetStore;
         this.defaultResizeWidth = defaultResizeWidth > 0 ? defaultResizeWidth : DEFAULT_RESIZE_WIDTH;
+        this.placeholderRenderer = placeholderRenderer;
     }
 
     @Override
@@ -154,7 +167,7 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
             }
             component = componentCandidate;
         }
-        ImageComponent imageComponent = new ImageComponent(component);
+        ImageComponent imageComponent = new ImageComponent(component, AssetLookup.get(request));
         if (imageComponent.source == Source.NONEXISTING) {
             LOGGER.error("The image from {} does not have a valid file reference.", component.getPath());
             response.sendError(HttpServletResponse.SC_NOT_FOUND);
@@ -169,11 +182,10 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
         if (lastModifiedDate != null) {
             lastModifiedEpoch = lastModifiedDate.getTimeInMillis();
         }
-        Asset asset = null;
+        Asset asset = imageComponent.asset;
         if (imageComponent.source == Source.ASSET) {
-            asset = imageComponent.imageResource.adaptTo(Asset.class);
             if (asset == null) {
-                LOGGER.error("Unable to adapt resource {} used by image {} to an asset.", imageComponent.imageResource.getPath(), component.getPath());
+                LOGGER.error("Unable to find asset {} used by image {}.", imageComponent.fileReference, component.getPath());
                 response.sendError(HttpServletResponse.SC_NOT_FOUND);
                 return;
             }
@@ -198,6 +210,10 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
             }
         }
         if (!handleIfModifiedSinceHeader(request, response, lastModifiedEpoch)) {
+            if (selectors.length > 1 && LQIP_SELECTOR.equals(selectors[1])) {
+                streamPlaceholder(response, component, lastModifiedEpoch, requestPathInfo.getExtension());
+                return;
+            }
             int resizeWidth = defaultResizeWidth;
             String widthSelector = selectors[selectors.length - 1];
             List<Integer> allowedRenditionWidths = getAllowedRenditionWidths(resourceResolver, component, request);
@@ -271,6 +287,38 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
         return null;
     }
 
+    /**
+     * Streams the low-quality image placeholder of the {@code component}, as provided by the {@link ImagePlaceholderRenderer}.
+     *
+     * @param response          the response
+     * @param component         the image component
+     * @param lastModifiedEpoch the last modified date of the image component (or of its asset, whichever is newer)
+     * @param extension         the request extension
+     * @throws IOException if the placeholder cannot be written to the response
+     */
+    private void streamPlaceholder(@Nonnull SlingHttpServletResponse response, @Nonnull Resource component, long lastModifiedEpoch,
+                                   String extension) throws IOException {
+        if (placeholderRenderer == null) {
+            LOGGER.error("Unable to render a placeholder for image {}, since no placeholder renderer is available.", component.getPath());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!ImagePlaceholderRenderer.PLACEHOLDER_MIME_TYPE.equals(getImageType(extension))) {
+            LOGGER.error("Image placeholders can only be rendered as JPEG images; requested extension: {}.", extension);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        byte[] placeholder = placeholderRenderer.getPlaceholder(component, lastModifiedEpoch);
+        if (placeholder == null) {
+            LOGGER.error("Unable to render a placeholder for image {}.", component.getPath());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(ImagePlaceholderRenderer.PLACEHOLDER_MIME_TYPE);
+        response.setContentLength(placeholder.length);
+        response.getOutputStream().write(placeholder);
+    }
+
     private void transformAndStreamAsset(SlingHttpServletResponse response, ValueMap componentProperties, int resizeWidth, Asset asset, String
             imageType) throws IOException {
         String extension = mimeTypeService.getExtension(imageType);
@@ -454,7 +502,7 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
      * @param asset the asset for which to retrieve the web rendition
      * @return the rendition, if found, {@code null} otherwise
      */
-    private Rendition getAWebRendition(Asset asset) {
+    static Rendition getAWebRendition(Asset asset) {
         List<Rendition> renditions = asset.getRenditions();
         for (Rendition rendition : renditions) {
             if (rendition.getName().startsWith(DamConstants.PREFIX_ASSET_WEB)) {
@@ -480,7 +528,7 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
      * @param properties the image component's properties
      * @return the cropping rectangle, if one is found, {@code null} otherwise
      */
-    private Rectangle getCropRect(@Nonnull ValueMap properties) {
+    static Rectangle getCropRect(@Nonnull ValueMap properties) {
         String csv = properties.get(ImageResource.PN_IMAGE_CROP, String.class);
         if (StringUtils.isNotEmpty(csv)) {
             try {
@@ -508,7 +556,7 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
      * @param properties the image component's properties
      * @return the rotation angle
      */
-    private int getRotation(@Nonnull ValueMap properties) {
+    static int getRotation(@Nonnull ValueMap properties) {
         String rotationString = properties.get(ImageResource.PN_IMAGE_ROTATE, String.class);
         if (rotationString != null) {
             try {
@@ -665,11 +713,13 @@ public class AdaptiveImageServlet extends SlingSafeMethodsServlet {
     private static class ImageComponent {
         Source source = Source.NONEXISTING;
         Resource imageResource;
+        String fileReference;
+        Asset asset;
 
-        ImageComponent(@Nonnull Resource component) {
-            String fileReference = component.getValueMap().get(DownloadResource.PN_REFERENCE, String.class);
+        ImageComponent(@Nonnull Resource component, @Nonnull AssetLookup assetLookup) {
+            fileReference = component.getValueMap().get(DownloadResource.PN_REFERENCE, String.class);
             if (StringUtils.isNotEmpty(fileReference)) {
-                imageResource = component.getResourceResolver().getResource(fileReference);
+                asset = assetLookup.getAsset(fileReference);
                 source = Source.ASSET;
             } else {
                 Resource childFileNode = component.getChild(DownloadResource.NN_FILE);
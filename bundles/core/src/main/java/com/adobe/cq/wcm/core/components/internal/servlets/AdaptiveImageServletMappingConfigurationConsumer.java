@@ -58,6 +58,13 @@ public class AdaptiveImageServletMappingConfigurationConsumer {
     @Reference
     private AssetStore assetStore;
 
+    /**
+     * Mandatory, since the registered servlets keep the renderer they were created with; it is provided by this bundle and has no other
+     * dependencies than the {@link AssetStore}.
+     */
+    @Reference
+    private ImagePlaceholderRenderer placeholderRenderer;
+
     private BundleContext bundleContext;
 
     private List<AdaptiveImageServletMappingConfigurationFactory> configs = new ArrayList<>();
@@ -161,7 +168,8 @@ public class AdaptiveImageServletMappingConfigurationConsumer {
                                 new AdaptiveImageServlet(
                                         mimeTypeService,
                                         assetStore,
-                                        oldAISDefaultResizeWidth > 0 ? oldAISDefaultResizeWidth : config.getDefaultResizeWidth()),
+                                        oldAISDefaultResizeWidth > 0 ? oldAISDefaultResizeWidth : config.getDefaultResizeWidth(),
+                                        placeholderRenderer),
                                 properties
                         )
                 );
@@ -0,0 +1,207 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.wcm.core.components.internal.AssetLookup;
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.day.cq.commons.DownloadResource;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+import com.day.cq.dam.api.Rendition;
+
+/**
+ * Provides the intrinsic dimensions of the images rendered by the image components, i.e. the dimensions of the image's binary after
+ * applying the component's cropping and rotation settings. The dimensions of assets are read from their metadata, while the dimensions
+ * of uploaded files and web renditions are read from the image headers, without decoding the images. The dimensions are cached per
+ * image component and are calculated again only when the component's last modified date changes.
+ */
+@Component(service = ImageDimensionsProvider.class)
+public class ImageDimensionsProvider {
+
+    private static final int MAX_CACHED_DIMENSIONS = 5000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageDimensionsProvider.class);
+
+    private final ContentCache<String, CachedDimensions> dimensions = new ContentCache<>(MAX_CACHED_DIMENSIONS);
+
+    /**
+     * Returns the intrinsic dimensions of the image rendered by the provided image {@code component}, calculating them if they were not
+     * already cached for the given {@code lastModified} date.
+     *
+     * @param component    the image component
+     * @param assetLookup  the asset lookup of the current request, through which the image's asset is resolved on a cache miss
+     * @param lastModified the last modified date of the image component (or of its asset, whichever is newer)
+     * @return the dimensions of the image, or {@code null} if they cannot be determined
+     */
+    @CheckForNull
+    public Dimension getDimensions(@Nonnull Resource component, @Nonnull AssetLookup assetLookup, long lastModified) {
+        CachedDimensions cachedDimensions = dimensions.get(component.getPath());
+        if (cachedDimensions == null || cachedDimensions.lastModified != lastModified) {
+            Dimension dimension = null;
+            try {
+                dimension = calculate(component, assetLookup);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error(String.format("Unable to determine the dimensions of image %s.", component.getPath()), e);
+            }
+            // unknown dimensions are cached as well, to avoid reading the binaries again on every request
+            cachedDimensions = dimension != null ? new CachedDimensions(lastModified, dimension.width, dimension.height) :
+                    new CachedDimensions(lastModified, 0, 0);
+            dimensions.put(component.getPath(), cachedDimensions);
+        }
+        if (cachedDimensions.width > 0 && cachedDimensions.height > 0) {
+            return new Dimension(cachedDimensions.width, cachedDimensions.height);
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private Dimension calculate(@Nonnull Resource component, @Nonnull AssetLookup assetLookup) throws IOException {
+        ValueMap properties = component.getValueMap();
+        Rectangle cropRectangle = AdaptiveImageServlet.getCropRect(properties);
+        Dimension dimension = null;
+        double scaling = 1.0;
+        String fileReference = properties.get(DownloadResource.PN_REFERENCE, String.class);
+        if (StringUtils.isNotEmpty(fileReference)) {
+            // the asset was usually already resolved through the lookup by the image component's model
+            Asset asset = assetLookup.getAsset(fileReference);
+            if (asset != null) {
+                dimension = getAssetDimension(asset, assetLookup);
+                if (dimension != null && cropRectangle != null) {
+                    // the cropping rectangle is calculated by the authoring UI based on the asset's web rendition
+                    Rendition webRendition = AdaptiveImageServlet.getAWebRendition(asset);
+                    Dimension renditionDimension = webRendition != null ? readDimension(webRendition.getStream()) : null;
+                    if (renditionDimension != null && renditionDimension.width > 0) {
+                        scaling = (double) dimension.width / renditionDimension.width;
+                    }
+                }
+            }
+        } else {
+            Resource file = component.getChild(DownloadResource.NN_FILE);
+            if (file != null) {
+                dimension = readDimension(file.adaptTo(InputStream.class));
+            }
+        }
+        if (dimension == null) {
+            return null;
+        }
+        if (cropRectangle != null) {
+            Rectangle scaledRectangle = new Rectangle(
+                    (int) (cropRectangle.x * scaling),
+                    (int) (cropRectangle.y * scaling),
+                    (int) (cropRectangle.getWidth() * scaling),
+                    (int) (cropRectangle.getHeight() * scaling)
+            );
+            Rectangle croppedRectangle = scaledRectangle.intersection(new Rectangle(dimension));
+            if (!croppedRectangle.isEmpty()) {
+                dimension = croppedRectangle.getSize();
+            }
+        }
+        int rotationAngle = AdaptiveImageServlet.getRotation(properties);
+        if (rotationAngle % 180 != 0) {
+            // rotated images are rendered on their bounding box
+            double radians = Math.toRadians(rotationAngle);
+            double sin = Math.abs(Math.sin(radians));
+            double cos = Math.abs(Math.cos(radians));
+            dimension = new Dimension(
+                    (int) Math.round(dimension.width * cos + dimension.height * sin),
+                    (int) Math.round(dimension.width * sin + dimension.height * cos)
+            );
+        }
+        return dimension;
+    }
+
+    @CheckForNull
+    private Dimension getAssetDimension(@Nonnull Asset asset, @Nonnull AssetLookup assetLookup) throws IOException {
+        int width = getDimension(assetLookup.getMetadataValue(asset, DamConstants.TIFF_IMAGEWIDTH));
+        int height = getDimension(assetLookup.getMetadataValue(asset, DamConstants.TIFF_IMAGELENGTH));
+        if (width > 0 && height > 0) {
+            return new Dimension(width, height);
+        }
+        Rendition original = asset.getOriginal();
+        if (original != null) {
+            LOGGER.debug("Asset {} has no dimensions metadata; reading them from its original rendition.", asset.getPath());
+            return readDimension(original.getStream());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the dimensions of an image from its header, without decoding the image.
+     *
+     * @param inputStream the image's stream; the stream is closed by this method
+     * @return the dimensions of the image, or {@code null} if the image format is not supported
+     */
+    @CheckForNull
+    private Dimension readDimension(@Nullable InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return null;
+        }
+        try (InputStream is = inputStream; ImageInputStream imageInputStream = ImageIO.createImageInputStream(is)) {
+            if (imageInputStream != null) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+                if (readers.hasNext()) {
+                    ImageReader reader = readers.next();
+                    try {
+                        reader.setInput(imageInputStream, true, true);
+                        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+                    } finally {
+                        reader.dispose();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private int getDimension(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static class CachedDimensions {
+        private final long lastModified;
+        private final int width;
+        private final int height;
+
+        private CachedDimensions(long lastModified, int width, int height) {
+            this.lastModified = lastModified;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
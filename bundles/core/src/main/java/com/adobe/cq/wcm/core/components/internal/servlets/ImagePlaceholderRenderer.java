@@ -0,0 +1,194 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.wcm.core.components.internal.ContentCache;
+import com.adobe.cq.wcm.core.components.models.Image;
+import com.day.cq.commons.DownloadResource;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import com.day.cq.dam.api.handler.AssetHandler;
+import com.day.cq.dam.api.handler.store.AssetStore;
+import com.day.image.Layer;
+
+/**
+ * Renders low-quality image placeholders (LQIP) for image components. A placeholder is a heavily compressed JPEG image,
+ * {@link #PLACEHOLDER_WIDTH} pixels wide, to which the component's cropping, rotation and flipping settings are applied. The
+ * placeholders are cached per image component and are rendered again only when the component's last modified date changes.
+ */
+@Component(service = ImagePlaceholderRenderer.class)
+public class ImagePlaceholderRenderer {
+
+    public static final int PLACEHOLDER_WIDTH = 32;
+    static final String PLACEHOLDER_MIME_TYPE = "image/jpeg";
+    private static final double PLACEHOLDER_QUALITY = 0.2;
+    private static final String DATA_URI_PREFIX = "data:" + PLACEHOLDER_MIME_TYPE + ";base64,";
+    private static final int MAX_CACHED_PLACEHOLDERS = 1000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImagePlaceholderRenderer.class);
+
+    @Reference
+    private AssetStore assetStore;
+
+    private final ContentCache<String, Placeholder> placeholders = new ContentCache<>(MAX_CACHED_PLACEHOLDERS);
+
+    /**
+     * Returns the placeholder for the provided image {@code component}, rendering it if it was not already cached for the given
+     * {@code lastModified} date.
+     *
+     * @param component    the image component
+     * @param lastModified the last modified date of the image component (or of its asset, whichever is newer)
+     * @return the JPEG encoded placeholder, or {@code null} if the placeholder cannot be rendered
+     */
+    @CheckForNull
+    public byte[] getPlaceholder(@Nonnull Resource component, long lastModified) {
+        Placeholder placeholder = placeholders.get(component.getPath());
+        if (placeholder == null || placeholder.lastModified != lastModified) {
+            byte[] image = render(component);
+            if (image == null) {
+                return null;
+            }
+            placeholder = new Placeholder(lastModified, image);
+            placeholders.put(component.getPath(), placeholder);
+        }
+        return placeholder.image;
+    }
+
+    /**
+     * Returns the placeholder for the provided image {@code component} as a base64 encoded data URI.
+     *
+     * @param component    the image component
+     * @param lastModified the last modified date of the image component (or of its asset, whichever is newer)
+     * @return the placeholder's data URI, or {@code null} if the placeholder cannot be rendered
+     * @see #getPlaceholder(Resource, long)
+     */
+    @CheckForNull
+    public String getPlaceholderDataUri(@Nonnull Resource component, long lastModified) {
+        byte[] image = getPlaceholder(component, lastModified);
+        if (image != null) {
+            return DATA_URI_PREFIX + Base64.getEncoder().encodeToString(image);
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private byte[] render(@Nonnull Resource component) {
+        ValueMap properties = component.getValueMap();
+        try {
+            Layer layer = null;
+            String fileReference = properties.get(DownloadResource.PN_REFERENCE, String.class);
+            if (StringUtils.isNotEmpty(fileReference)) {
+                Resource assetResource = component.getResourceResolver().getResource(fileReference);
+                if (assetResource != null) {
+                    Asset asset = assetResource.adaptTo(Asset.class);
+                    if (asset != null) {
+                        layer = getAssetLayer(asset);
+                    }
+                }
+            } else {
+                Resource file = component.getChild(DownloadResource.NN_FILE);
+                if (file != null) {
+                    try (InputStream is = file.adaptTo(InputStream.class)) {
+                        if (is != null) {
+                            layer = new Layer(is);
+                        }
+                    }
+                }
+            }
+            if (layer == null) {
+                LOGGER.debug("Image {} has no binary from which a placeholder could be rendered.", component.getPath());
+                return null;
+            }
+            transform(layer, properties);
+            int width = layer.getWidth();
+            int height = layer.getHeight();
+            if (width > PLACEHOLDER_WIDTH && height > 0) {
+                layer.resize(PLACEHOLDER_WIDTH, Math.max(1, (int) Math.round((double) height * PLACEHOLDER_WIDTH / width)));
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            layer.write(PLACEHOLDER_MIME_TYPE, PLACEHOLDER_QUALITY, outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error(String.format("Unable to render a placeholder for image %s.", component.getPath()), e);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the layer of an asset, preferring its web rendition, since the rendition is cheaper to decode than the original and is also
+     * the one based on which the cropping rectangle was calculated.
+     */
+    @CheckForNull
+    private Layer getAssetLayer(@Nonnull Asset asset) throws IOException {
+        Rendition webRendition = AdaptiveImageServlet.getAWebRendition(asset);
+        if (webRendition != null) {
+            try (InputStream is = webRendition.getStream()) {
+                if (is != null) {
+                    return new Layer(is);
+                }
+            }
+        }
+        Rendition original = asset.getOriginal();
+        AssetHandler assetHandler = assetStore.getAssetHandler(asset.getMimeType());
+        if (original != null && assetHandler != null) {
+            return new Layer(assetHandler.getImage(original));
+        }
+        return null;
+    }
+
+    private void transform(@Nonnull Layer layer, @Nonnull ValueMap properties) {
+        Rectangle rectangle = AdaptiveImageServlet.getCropRect(properties);
+        if (rectangle != null) {
+            layer.crop(rectangle);
+        }
+        int rotationAngle = AdaptiveImageServlet.getRotation(properties);
+        if (rotationAngle != 0) {
+            layer.rotate(rotationAngle);
+        }
+        if (properties.get(Image.PN_FLIP_HORIZONTAL, Boolean.FALSE)) {
+            layer.flipHorizontally();
+        }
+        if (properties.get(Image.PN_FLIP_VERTICAL, Boolean.FALSE)) {
+            layer.flipVertically();
+        }
+    }
+
+    private static class Placeholder {
+        private final long lastModified;
+        private final byte[] image;
+
+        private Placeholder(long lastModified, byte[] image) {
+            this.lastModified = lastModified;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.io.IOException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTree;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeCache;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeOverlay;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
+import com.adobe.cq.wcm.core.components.models.NavigationItem;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Renders a single navigation subtree as JSON, allowing clients to load the deeper levels of a navigation on demand:
+ * {@code /content/site/page.navigation.subtree.json?path=/content/site/section&depth=2}. The response contains the navigation item of
+ * the {@code path} page (on level {@code 0}) and its descendants, up to {@code depth} levels below it. The items are marked as active
+ * based on the requested page. Only subtrees of the requested page's site can be loaded.
+ */
+@Component(
+        service = Servlet.class,
+        property = {
+                "sling.servlet.selectors=" + NavigationSubtreeServlet.SELECTOR,
+                "sling.servlet.resourceTypes=cq/Page",
+                "sling.servlet.extensions=json",
+                "sling.servlet.methods=GET"
+        }
+)
+public class NavigationSubtreeServlet extends SlingSafeMethodsServlet {
+
+    static final String SELECTOR = "navigation.subtree";
+    static final String PARAM_PATH = "path";
+    static final String PARAM_DEPTH = "depth";
+    static final int DEFAULT_DEPTH = 1;
+    static final int MAX_DEPTH = 5;
+
+    private static final int SITE_LEVEL = 1;
+
+    /**
+     * Shared by all the requests, since writers are immutable and thread-safe.
+     */
+    private static final ObjectWriter ITEM_WRITER = new ObjectMapper().writer();
+
+    @Reference
+    private NavigationTreeCache navigationTreeCache;
+
+    @Reference
+    private RedirectChainCache redirectChainCache;
+
+    @Override
+    protected void doGet(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response) throws IOException {
+        PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+        Page currentPage = pageManager != null ? pageManager.getContainingPage(request.getResource()) : null;
+        if (currentPage == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Integer depth = getDepth(request);
+        if (depth == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        String path = request.getParameter(PARAM_PATH);
+        // the subtree is looked up in the site's tree, which is shared with the navigations of the site, instead of caching a tree per
+        // requested subtree and depth
+        NavigationTree tree = navigationTreeCache.getTree(getSite(currentPage), -1);
+        NavigationTree.Node node = StringUtils.isNotEmpty(path) ? tree.findNode(path) : null;
+        if (node == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        NavigationTreeOverlay overlay = new NavigationTreeOverlay(request, currentPage, -node.getDepth(), redirectChainCache);
+        NavigationItem item = overlay.getItem(null, node, depth);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("utf-8");
+        ITEM_WRITER.writeValue(response.getWriter(), item);
+    }
+
+    /**
+     * Returns the requested depth, capped at {@link #MAX_DEPTH}, or {@code null} if the depth parameter is not valid.
+     */
+    @CheckForNull
+    private Integer getDepth(@Nonnull SlingHttpServletRequest request) {
+        String depthParameter = request.getParameter(PARAM_DEPTH);
+        if (StringUtils.isEmpty(depthParameter)) {
+            return DEFAULT_DEPTH;
+        }
+        try {
+            int depth = Integer.parseInt(depthParameter);
+            return depth >= 0 ? Math.min(depth, MAX_DEPTH) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Nonnull
+    private Page getSite(@Nonnull Page currentPage) {
+        Page site = currentPage.getAbsoluteParent(SITE_LEVEL);
+        return site != null ? site : currentPage;
+    }
+}
@@ -17,12 +17,11 @@ package com.adobe.cq.wcm.core.components.internal.servlets;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import javax.jcr.RangeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.servlet.Servlet;
@@ -30,10 +29,8 @@ import javax.servlet.Servlet;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
-import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
-import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
 import org.apache.sling.api.wrappers.ValueMapDecorator;
@@ -43,8 +40,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.wcm.core.components.internal.models.v1.PageListItemImpl;
+import com.adobe.cq.wcm.core.components.internal.navigation.LocalizedRootResolver;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
 import com.adobe.cq.wcm.core.components.internal.models.v1.SearchImpl;
-import com.adobe.cq.wcm.core.components.models.ListItem;
+import com.adobe.cq.wcm.core.components.internal.search.PageTitleIndex;
+import com.adobe.cq.wcm.core.components.internal.search.SearchConfigurationCache;
+import com.adobe.cq.wcm.core.components.internal.search.SearchResultCache;
 import com.adobe.cq.wcm.core.components.models.Search;
 import com.day.cq.search.PredicateConverter;
 import com.day.cq.search.PredicateGroup;
@@ -57,17 +58,18 @@ import com.day.cq.wcm.api.NameConstants;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.Template;
-import com.day.cq.wcm.api.WCMException;
 import com.day.cq.wcm.api.policies.ContentPolicy;
 import com.day.cq.wcm.api.policies.ContentPolicyManager;
-import com.day.cq.wcm.msm.api.LiveRelationship;
-import com.day.cq.wcm.msm.api.LiveRelationshipManager;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @Component(
         service = Servlet.class,
         property = {
                 "sling.servlet.selectors=" + SearchResultServlet.DEFAULT_SELECTOR,
+                "sling.servlet.selectors=" + SearchResultServlet.SUGGEST_SELECTOR,
                 "sling.servlet.resourceTypes=cq/Page",
                 "sling.servlet.extensions=json",
                 "sling.servlet.methods=GET"
@@ -76,6 +78,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class SearchResultServlet extends SlingSafeMethodsServlet {
 
     protected static final String DEFAULT_SELECTOR = "searchresults";
+    protected static final String SUGGEST_SELECTOR = "searchsuggest";
     protected static final String PARAM_FULLTEXT = "fulltext";
 
     private static final String PARAM_RESULTS_OFFSET = "resultsOffset";
@@ -83,9 +86,16 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
     private static final String PREDICATE_TYPE = "type";
     private static final String PREDICATE_PATH = "path";
     private static final String NN_STRUCTURE = "structure";
+    private static final int DEFAULT_SUGGESTIONS_SIZE = 10;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SearchResultServlet.class);
 
+    /**
+     * Shared by all the requests, since writers are immutable and thread-safe; the items are not flushed one by one, the response is
+     * flushed once after the first item was written instead.
+     */
+    private static final ObjectWriter ITEM_WRITER = new ObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
     @Reference
     private QueryBuilder queryBuilder;
 
@@ -93,16 +103,31 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
     private LanguageManager languageManager;
 
     @Reference
-    private LiveRelationshipManager relationshipManager;
+    private LocalizedRootResolver localizedRootResolver;
+
+    @Reference
+    private RedirectChainCache redirectChainCache;
+
+    @Reference
+    private SearchResultCache searchResultCache;
+
+    @Reference
+    private SearchConfigurationCache searchConfigurationCache;
+
+    @Reference
+    private PageTitleIndex pageTitleIndex;
 
     @Override
     protected void doGet(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response)
             throws IOException {
         Page currentPage = getCurrentPage(request);
         if (currentPage != null) {
-            Resource searchResource = getSearchContentResource(request, currentPage);
-            List<ListItem> results = getResults(request, searchResource, currentPage);
-            writeJson(results, response);
+            SearchConfigurationCache.Configuration configuration = getConfiguration(request, currentPage);
+            String searchRootPagePath = getSearchRootPagePath(configuration, currentPage);
+            List<String> hitPaths = SUGGEST_SELECTOR.equals(request.getRequestPathInfo().getSelectorString()) ?
+                    getSuggestionPaths(request, configuration, searchRootPagePath, currentPage) :
+                    getHitPaths(request, configuration, searchRootPagePath);
+            writeJson(request, hitPaths, response);
         }
     }
 
@@ -117,25 +142,53 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
         return currentPage;
     }
 
-    private void writeJson(List<ListItem> results, SlingHttpServletResponse response) {
+    /**
+     * Streams the hits to the response as a JSON array, writing each hit as soon as its page was resolved, so that only the paths of the
+     * hits are held in memory, instead of the result items, and the client receives the first result as early as possible.
+     */
+    private void writeJson(SlingHttpServletRequest request, List<String> hitPaths, SlingHttpServletResponse response) {
         response.setContentType("application/json");
         response.setCharacterEncoding("utf-8");
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            mapper.writeValue(response.getWriter(), results);
+        ResourceResolver resourceResolver = request.getResourceResolver();
+        try (JsonGenerator generator = ITEM_WRITER.getFactory().createGenerator(response.getWriter())) {
+            generator.writeStartArray();
+            boolean flushed = false;
+            for (String hitPath : hitPaths) {
+                Page page = getPage(resourceResolver.getResource(hitPath));
+                if (page != null) {
+                    ITEM_WRITER.writeValue(generator, new PageListItemImpl(request, page, redirectChainCache));
+                    if (!flushed) {
+                        generator.flush();
+                        flushed = true;
+                    }
+                }
+            }
+            generator.writeEndArray();
         } catch (IOException e) {
             LOGGER.error(e.getMessage());
         }
     }
 
-    private Resource getSearchContentResource(SlingHttpServletRequest request, Page currentPage) {
+    /**
+     * Returns the settings of the search component identified by the request's suffix. The settings of a component are cached per
+     * component, so the settings of a component found in the structure of the page's template are shared by all the pages using the
+     * template.
+     */
+    private SearchConfigurationCache.Configuration getConfiguration(SlingHttpServletRequest request, Page currentPage) {
+        String componentPath = StringUtils.removeStart(request.getRequestPathInfo().getSuffix(), "/");
+        Resource searchResource = getSearchContentResource(request, currentPage, componentPath);
+        if (searchResource == null) {
+            return new SearchConfigurationCache.Configuration(null, SearchImpl.PROP_RESULTS_SIZE_DEFAULT,
+                    SearchImpl.PROP_SEARCH_TERM_MINIMUM_LENGTH_DEFAULT);
+        }
+        SearchConfigurationCache.Key key = new SearchConfigurationCache.Key(searchResource.getPath(),
+                request.getResourceResolver().getUserID());
+        return searchConfigurationCache.getConfiguration(key, () -> readConfiguration(request, searchResource));
+    }
+
+    private Resource getSearchContentResource(SlingHttpServletRequest request, Page currentPage, String relativeContentResource) {
         Resource searchContentResource = null;
-        RequestPathInfo requestPathInfo = request.getRequestPathInfo();
         Resource resource = request.getResource();
-        String relativeContentResource = requestPathInfo.getSuffix();
-        if (StringUtils.startsWith(relativeContentResource, "/")) {
-            relativeContentResource = StringUtils.substring(relativeContentResource, 1);
-        }
         if (StringUtils.isNotEmpty(relativeContentResource)) {
             searchContentResource = resource.getChild(relativeContentResource);
             if (searchContentResource == null) {
@@ -155,41 +208,72 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
     }
 
 
-    private List<ListItem> getResults(SlingHttpServletRequest request, Resource searchResource, Page currentPage) {
-        int searchTermMinimumLength = SearchImpl.PROP_SEARCH_TERM_MINIMUM_LENGTH_DEFAULT;
-        int resultsSize = SearchImpl.PROP_RESULTS_SIZE_DEFAULT;
-        String searchRootPagePath;
-        if (searchResource != null) {
-            ValueMap valueMap = searchResource.getValueMap();
-            ValueMap contentPolicyMap = getContentPolicyProperties(searchResource, request.getResource());
-            searchTermMinimumLength = valueMap.get(Search.PN_SEARCH_TERM_MINIMUM_LENGTH, contentPolicyMap.get(Search
-                        .PN_SEARCH_TERM_MINIMUM_LENGTH, SearchImpl.PROP_SEARCH_TERM_MINIMUM_LENGTH_DEFAULT));
-            resultsSize = valueMap.get(Search.PN_RESULTS_SIZE, contentPolicyMap.get(Search.PN_RESULTS_SIZE,
-                        SearchImpl.PROP_RESULTS_SIZE_DEFAULT));
-            String searchRoot = valueMap.get(Search.PN_SEARCH_ROOT, contentPolicyMap.get(Search.PN_SEARCH_ROOT, SearchImpl.PROP_SEARCH_ROOT_DEFAULT));
-            searchRootPagePath = getSearchRootPagePath(searchRoot, currentPage);
-        } else {
-            String languageRoot = languageManager.getLanguageRoot(currentPage.getContentResource()).getPath();
-            searchRootPagePath = getSearchRootPagePath(languageRoot, currentPage);
+    private SearchConfigurationCache.Configuration readConfiguration(SlingHttpServletRequest request, Resource searchResource) {
+        ValueMap valueMap = searchResource.getValueMap();
+        ValueMap contentPolicyMap = getContentPolicyProperties(searchResource, request.getResource());
+        int searchTermMinimumLength = valueMap.get(Search.PN_SEARCH_TERM_MINIMUM_LENGTH, contentPolicyMap.get(Search
+                .PN_SEARCH_TERM_MINIMUM_LENGTH, SearchImpl.PROP_SEARCH_TERM_MINIMUM_LENGTH_DEFAULT));
+        int resultsSize = valueMap.get(Search.PN_RESULTS_SIZE, contentPolicyMap.get(Search.PN_RESULTS_SIZE,
+                SearchImpl.PROP_RESULTS_SIZE_DEFAULT));
+        String searchRoot = valueMap.get(Search.PN_SEARCH_ROOT, contentPolicyMap.get(Search.PN_SEARCH_ROOT,
+                SearchImpl.PROP_SEARCH_ROOT_DEFAULT));
+        return new SearchConfigurationCache.Configuration(searchRoot, resultsSize, searchTermMinimumLength);
+    }
+
+    /**
+     * Localizes the configured search root for the {@code currentPage}; without a search component, the search is run under the current
+     * page's language root.
+     */
+    private String getSearchRootPagePath(SearchConfigurationCache.Configuration configuration, Page currentPage) {
+        String searchRoot = configuration.getSearchRoot();
+        if (searchRoot == null) {
+            searchRoot = languageManager.getLanguageRoot(currentPage.getContentResource()).getPath();
         }
-        if (StringUtils.isEmpty(searchRootPagePath)) {
-            searchRootPagePath = currentPage.getPath();
+        String searchRootPagePath = getSearchRootPagePath(searchRoot, currentPage);
+        return StringUtils.isNotEmpty(searchRootPagePath) ? searchRootPagePath : currentPage.getPath();
+    }
+
+    private List<String> getHitPaths(SlingHttpServletRequest request, SearchConfigurationCache.Configuration configuration,
+                                     String searchRootPagePath) {
+        String fulltext = request.getParameter(PARAM_FULLTEXT);
+        if (fulltext == null || fulltext.length() < configuration.getSearchTermMinimumLength()) {
+            return Collections.emptyList();
         }
-        List<ListItem> results = new ArrayList<>();
+        String resultsOffsetParameter = request.getParameter(PARAM_RESULTS_OFFSET);
+        long resultsOffset = resultsOffsetParameter != null ? Long.parseLong(resultsOffsetParameter) : 0;
+        ResourceResolver resourceResolver = request.getResource().getResourceResolver();
+        int resultsSize = configuration.getResultsSize();
+        SearchResultCache.Key key = new SearchResultCache.Key(fulltext, searchRootPagePath, resultsOffset, resultsSize,
+                resourceResolver.getUserID());
+        return searchResultCache.getHitPaths(key, () ->
+                search(resourceResolver, fulltext, searchRootPagePath, resultsOffset, resultsSize));
+    }
+
+    /**
+     * Returns the paths of the pages whose titles start with the search term, looked up in the {@link PageTitleIndex} instead of running
+     * a full-text query, so that pages can be suggested while the visitor is typing.
+     */
+    private List<String> getSuggestionPaths(SlingHttpServletRequest request, SearchConfigurationCache.Configuration configuration,
+                                            String searchRootPagePath, Page currentPage) {
         String fulltext = request.getParameter(PARAM_FULLTEXT);
-        if (fulltext == null || fulltext.length() < searchTermMinimumLength) {
-            return results;
+        if (fulltext == null || fulltext.length() < configuration.getSearchTermMinimumLength()) {
+            return Collections.emptyList();
         }
-        long resultsOffset = 0;
-        if (request.getParameter(PARAM_RESULTS_OFFSET) != null) {
-            resultsOffset = Long.parseLong(request.getParameter(PARAM_RESULTS_OFFSET));
+        Page searchRootPage = currentPage.getPageManager().getPage(searchRootPagePath);
+        if (searchRootPage == null) {
+            return Collections.emptyList();
         }
+        int resultsSize = configuration.getResultsSize();
+        return pageTitleIndex.getSuggestions(searchRootPage, fulltext, resultsSize > 0 ? resultsSize : DEFAULT_SUGGESTIONS_SIZE);
+    }
+
+    private List<String> search(ResourceResolver resourceResolver, String fulltext, String searchRootPagePath, long resultsOffset,
+                                int resultsSize) {
         Map<String, String> predicatesMap = new HashMap<>();
         predicatesMap.put(PREDICATE_FULLTEXT, fulltext);
         predicatesMap.put(PREDICATE_PATH, searchRootPagePath);
         predicatesMap.put(PREDICATE_TYPE, NameConstants.NT_PAGE);
         PredicateGroup predicates = PredicateConverter.createPredicates(predicatesMap);
-        ResourceResolver resourceResolver = request.getResource().getResourceResolver();
         Query query = queryBuilder.createQuery(predicates, resourceResolver.adaptTo(Session.class));
         if (resultsSize != 0) {
             query.setHitsPerPage(resultsSize);
@@ -198,22 +282,21 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
             query.setStart(resultsOffset);
         }
         SearchResult searchResult = query.getResult();
-
+        List<String> hitPaths = new ArrayList<>();
         List<Hit> hits = searchResult.getHits();
         if (hits != null) {
             for (Hit hit : hits) {
                 try {
                     Resource hitRes = hit.getResource();
-                    Page page = getPage(hitRes);
-                    if (page != null) {
-                        results.add(new PageListItemImpl(request, page));
+                    if (hitRes != null) {
+                        hitPaths.add(hitRes.getPath());
                     }
                 } catch (RepositoryException e) {
                     LOGGER.error("Unable to retrieve search results for query.", e);
                 }
             }
         }
-        return results;
+        return hitPaths;
     }
 
     private String getSearchRootPagePath(String searchRoot, Page currentPage) {
@@ -222,35 +305,7 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
         if (StringUtils.isNotEmpty(searchRoot) && pageManager != null) {
             Page rootPage = pageManager.getPage(searchRoot);
             if (rootPage != null) {
-                Page searchRootLanguageRoot = languageManager.getLanguageRoot(rootPage.getContentResource());
-                Page currentPageLanguageRoot = languageManager.getLanguageRoot(currentPage.getContentResource());
-                RangeIterator liveCopiesIterator = null;
-                try {
-                    liveCopiesIterator = relationshipManager.getLiveRelationships(currentPage.adaptTo(Resource.class), null, null);
-                } catch (WCMException e) {
-                    // ignore it
-                }
-                if (searchRootLanguageRoot != null && currentPageLanguageRoot != null && !searchRootLanguageRoot.equals
-                        (currentPageLanguageRoot)) {
-                    // check if there's a language copy of the search root
-                    Page languageCopySearchRoot = pageManager.getPage(ResourceUtil.normalize(currentPageLanguageRoot.getPath() + "/" +
-                            getRelativePath(searchRootLanguageRoot, rootPage)));
-                    if (languageCopySearchRoot != null) {
-                        rootPage = languageCopySearchRoot;
-                    }
-                } else if (liveCopiesIterator != null) {
-                    while (liveCopiesIterator.hasNext()) {
-                        LiveRelationship relationship = (LiveRelationship) liveCopiesIterator.next();
-                        if (currentPage.getPath().startsWith(relationship.getTargetPath() + "/")) {
-                            Page liveCopySearchRoot = pageManager.getPage(relationship.getTargetPath());
-                            if (liveCopySearchRoot != null) {
-                                rootPage = liveCopySearchRoot;
-                                break;
-                            }
-                        }
-                    }
-                }
-                searchRootPagePath = rootPage.getPath();
+                searchRootPagePath = localizedRootResolver.getLocalizedRoot(rootPage, currentPage).getPath();
             }
         }
         return searchRootPagePath;
@@ -269,16 +324,6 @@ public class SearchResultServlet extends SlingSafeMethodsServlet {
         return contentPolicyProperties;
     }
 
-    @CheckForNull
-    private String getRelativePath(@Nonnull Page root, @Nonnull Page child) {
-        if (child.equals(root)) {
-            return ".";
-        } else if ((child.getPath() + "/").startsWith(root.getPath())) {
-            return child.getPath().substring(root.getPath().length() + 1);
-        }
-        return null;
-    }
-
     private Page getPage(Resource resource) {
         if (resource != null) {
             ResourceResolver resourceResolver = resource.getResourceResolver();
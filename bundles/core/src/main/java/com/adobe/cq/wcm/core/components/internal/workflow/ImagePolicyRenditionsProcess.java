@@ -0,0 +1,194 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.workflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import javax.annotation.Nonnull;
+import javax.jcr.query.Query;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.commons.mime.MimeTypeService;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.wcm.core.components.models.Image;
+import com.adobe.granite.workflow.WorkflowException;
+import com.adobe.granite.workflow.WorkflowSession;
+import com.adobe.granite.workflow.exec.WorkItem;
+import com.adobe.granite.workflow.exec.WorkflowProcess;
+import com.adobe.granite.workflow.metadata.MetaDataMap;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+import com.day.cq.dam.api.Rendition;
+import com.day.cq.dam.api.handler.AssetHandler;
+import com.day.cq.dam.api.handler.store.AssetStore;
+import com.day.cq.dam.commons.util.DamUtil;
+import com.day.image.Layer;
+
+/**
+ * Workflow process that generates, for an image asset, the {@code cq5dam.web.<width>.<width>.<extension>} renditions for all the widths
+ * allowed by the image components' content policies (see {@link Image#PN_DESIGN_ALLOWED_RENDITION_WIDTHS}). The
+ * {@link com.adobe.cq.wcm.core.components.internal.servlets.AdaptiveImageServlet} directly streams these renditions, instead of
+ * resizing the original asset when the image is requested.
+ *
+ * The widths can also be provided explicitly, as a comma-separated list, through the process arguments. Widths larger than or equal to
+ * the asset's width are skipped, since the servlet never upscales images, as are existing renditions.
+ */
+@Component(
+        service = WorkflowProcess.class,
+        property = {
+                "process.label=Core Components: Create Image Policy Web Renditions"
+        }
+)
+public class ImagePolicyRenditionsProcess implements WorkflowProcess {
+
+    static final String POLICY_WIDTHS_QUERY = "SELECT * FROM [nt:unstructured] AS policy WHERE ISDESCENDANTNODE(policy, '/conf') AND " +
+            "policy.[" + Image.PN_DESIGN_ALLOWED_RENDITION_WIDTHS + "] IS NOT NULL";
+
+    private static final String PROCESS_ARGS = "PROCESS_ARGS";
+    private static final String TYPE_JCR_PATH = "JCR_PATH";
+    private static final String MIME_TYPE_GIF = "image/gif";
+    private static final String MIME_TYPE_JPEG = "image/jpeg";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImagePolicyRenditionsProcess.class);
+
+    @Reference
+    private AssetStore assetStore;
+
+    @Reference
+    private MimeTypeService mimeTypeService;
+
+    @Override
+    public void execute(WorkItem workItem, WorkflowSession workflowSession, MetaDataMap metaDataMap) throws WorkflowException {
+        if (!TYPE_JCR_PATH.equals(workItem.getWorkflowData().getPayloadType())) {
+            return;
+        }
+        ResourceResolver resourceResolver = workflowSession.adaptTo(ResourceResolver.class);
+        if (resourceResolver == null) {
+            throw new WorkflowException("Unable to retrieve a resource resolver from the workflow session.");
+        }
+        String payloadPath = workItem.getWorkflowData().getPayload().toString();
+        Asset asset = DamUtil.resolveToAsset(resourceResolver.getResource(payloadPath));
+        if (asset == null) {
+            LOGGER.debug("Payload {} is not an asset; no renditions will be created.", payloadPath);
+            return;
+        }
+        String mimeType = asset.getMimeType();
+        if (StringUtils.isEmpty(mimeType) || !mimeType.startsWith("image/") || MIME_TYPE_GIF.equals(mimeType)) {
+            LOGGER.debug("Asset {} is not a resizable image ({}); no renditions will be created.", asset.getPath(), mimeType);
+            return;
+        }
+        NavigableSet<Integer> widths = getWidths(resourceResolver, metaDataMap.get(PROCESS_ARGS, String.class));
+        try {
+            createRenditions(asset, widths);
+        } catch (IOException e) {
+            throw new WorkflowException(String.format("Unable to create the web renditions of asset %s.", asset.getPath()), e);
+        }
+    }
+
+    /**
+     * Returns the widths for which renditions should be created: the widths explicitly configured through the process arguments or,
+     * if there are none, the widths allowed by all the content policies.
+     *
+     * @param resourceResolver the resource resolver used to find the content policies
+     * @param processArguments the process arguments
+     * @return the ordered set of widths
+     */
+    @Nonnull
+    NavigableSet<Integer> getWidths(@Nonnull ResourceResolver resourceResolver, String processArguments) {
+        NavigableSet<Integer> widths = new TreeSet<>();
+        if (StringUtils.isNotBlank(processArguments)) {
+            addWidths(widths, StringUtils.split(processArguments, ','), "process arguments");
+        } else {
+            Iterator<Resource> policies = resourceResolver.findResources(POLICY_WIDTHS_QUERY, Query.JCR_SQL2);
+            while (policies.hasNext()) {
+                Resource policy = policies.next();
+                addWidths(widths, policy.getValueMap().get(Image.PN_DESIGN_ALLOWED_RENDITION_WIDTHS, new String[0]), policy.getPath());
+            }
+        }
+        return widths;
+    }
+
+    private void addWidths(@Nonnull NavigableSet<Integer> widths, @Nonnull String[] values, String source) {
+        for (String value : values) {
+            try {
+                int width = Integer.parseInt(StringUtils.trim(value));
+                if (width > 0) {
+                    widths.add(width);
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring invalid width {} configured in {}.", value, source);
+            }
+        }
+    }
+
+    /**
+     * Creates the missing renditions, starting from the largest width, so that each rendition is obtained by downscaling the
+     * previously created one and the original image is decoded only once.
+     */
+    private void createRenditions(@Nonnull Asset asset, @Nonnull NavigableSet<Integer> widths) throws IOException {
+        String mimeType = asset.getMimeType();
+        String extension = mimeTypeService.getExtension(mimeType);
+        if ("tif".equalsIgnoreCase(extension) || "tiff".equalsIgnoreCase(extension)) {
+            // TIFF images are delivered as JPEG images by the image components
+            mimeType = MIME_TYPE_JPEG;
+            extension = mimeTypeService.getExtension(MIME_TYPE_JPEG);
+        }
+        Rendition original = asset.getOriginal();
+        AssetHandler assetHandler = assetStore.getAssetHandler(asset.getMimeType());
+        if (original == null || assetHandler == null || StringUtils.isEmpty(extension)) {
+            LOGGER.warn("Unable to create web renditions for asset {}.", asset.getPath());
+            return;
+        }
+        int originalWidth = getDimension(asset.getMetadataValue(DamConstants.TIFF_IMAGEWIDTH));
+        Layer layer = null;
+        for (int width : widths.descendingSet()) {
+            String renditionName = String.format(DamConstants.PREFIX_ASSET_WEB + ".%d.%d.%s", width, width, extension);
+            if ((originalWidth > 0 && width >= originalWidth) || asset.getRendition(renditionName) != null) {
+                continue;
+            }
+            if (layer == null) {
+                layer = new Layer(assetHandler.getImage(original));
+                originalWidth = layer.getWidth();
+                if (width >= originalWidth) {
+                    continue;
+                }
+            }
+            layer.resize(width, (int) ((double) width / layer.getWidth() * layer.getHeight()));
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            layer.write(mimeType, 1.0, outputStream);
+            asset.addRendition(renditionName, new ByteArrayInputStream(outputStream.toByteArray()), mimeType);
+            LOGGER.debug("Created rendition {} for asset {}.", renditionName, asset.getPath());
+        }
+    }
+
+    private int getDimension(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
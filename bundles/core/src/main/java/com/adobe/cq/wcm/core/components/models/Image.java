@@ -117,6 +117,31 @@ public interface Image extends ComponentExporter {
      */
     String PN_FLIP_VERTICAL = "imageFlipVertical";
 
+    /**
+     * Name of the configuration policy property that will indicate if a low-quality placeholder of the image should be inlined in
+     * the markup.
+     *
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    String PN_DESIGN_PLACEHOLDER_ENABLED = "placeholderEnabled";
+
+    /**
+     * Name of the configuration policy property that will indicate if the responsive image attributes ({@code srcset}, {@code sizes}
+     * and {@code loading}) should be rendered on the server, so that the browser can select the optimal rendition without waiting
+     * for the component's JavaScript.
+     *
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    String PN_DESIGN_SRCSET_ENABLED = "srcsetEnabled";
+
+    /**
+     * Name of the configuration policy property that will store the value of the {@code sizes} attribute rendered together with the
+     * {@code srcset} attribute.
+     *
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    String PN_DESIGN_SIZES = "sizes";
+
 
     /**
      * Returns the value for the {@code src} attribute of the image.
@@ -232,6 +257,61 @@ public interface Image extends ComponentExporter {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns a base64 encoded data URI of a low-quality placeholder for the image, which can be displayed until the actual
+     * image is loaded. The placeholder is only provided if enabled through the {@link #PN_DESIGN_PLACEHOLDER_ENABLED} content
+     * policy property.
+     *
+     * @return the data URI of the image's placeholder, or {@code null}
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    default String getPlaceholder() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the value for the {@code srcset} attribute of the image, listing the image's URL for each of the allowed
+     * {@link #getWidths() widths}. The value is only provided if enabled through the {@link #PN_DESIGN_SRCSET_ENABLED} content policy
+     * property and if the image can be rendered in more than one width.
+     *
+     * @return the value of the image's {@code srcset} attribute, or {@code null}
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    default String getSrcset() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the value for the {@code sizes} attribute of the image, to be rendered together with the {@link #getSrcset() srcset}
+     * attribute.
+     *
+     * @return the value of the image's {@code sizes} attribute, or {@code null} if no {@code srcset} is rendered
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    default String getSizes() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the intrinsic width of the image, in pixels, after applying the cropping and rotation settings of the component.
+     *
+     * @return the width of the image, or {@code 0} if it cannot be determined
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    default int getWidth() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the intrinsic height of the image, in pixels, after applying the cropping and rotation settings of the component.
+     *
+     * @return the height of the image, or {@code 0} if it cannot be determined
+     * @since com.adobe.cq.wcm.core.components.models 12.4.0
+     */
+    default int getHeight() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * @see ComponentExporter#getExportedType()
      * @since com.adobe.cq.wcm.core.components.models 12.2.0
@@ -17,6 +17,7 @@ package com.adobe.cq.wcm.core.components.models;
 
 import java.util.Collection;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 import org.osgi.annotation.versioning.ConsumerType;
@@ -164,6 +165,50 @@ public interface List extends ComponentExporter {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the total number of the list's items, when only a page of the items was requested. The total is not known if the list's
+     * source was only read up to the requested page.
+     *
+     * @return the total number of items, or {@code null} if the list isn't paginated or if the total is not known
+     * @since com.adobe.cq.wcm.core.components.models 12.5.0
+     */
+    @CheckForNull
+    default Integer getTotal() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns {@code true} if only a page of the list's items was requested and more items follow it.
+     *
+     * @return {@code true} if more items follow the requested page, {@code false} otherwise
+     * @since com.adobe.cq.wcm.core.components.models 12.5.0
+     */
+    default boolean hasMore() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the offset which can be passed with the next request in order to retrieve the page following the requested page.
+     *
+     * @return the offset of the next page, or {@code null} if no items follow the requested page
+     * @since com.adobe.cq.wcm.core.components.models 12.5.0
+     */
+    @CheckForNull
+    default Integer getNextOffset() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the URL of the page following the requested page, which carries the list's pagination selectors or request parameters.
+     *
+     * @return the URL of the next page, or {@code null} if no items follow the requested page
+     * @since com.adobe.cq.wcm.core.components.models 12.5.0
+     */
+    @CheckForNull
+    default String getNextUrl() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns {@code true} if the list's items should link to the corresponding {@link Page}s they represent.
      *
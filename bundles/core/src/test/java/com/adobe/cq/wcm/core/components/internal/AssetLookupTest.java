@@ -0,0 +1,100 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AssetLookupTest {
+
+    private static final String ASSET_PATH = "/content/dam/core/images/Adobe_Systems_logo_and_wordmark.png";
+    private static final String MISSING_ASSET_PATH = "/content/dam/core/images/missing.png";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext();
+
+    @Mock
+    private ResourceResolver resourceResolver;
+
+    @Mock
+    private Resource assetResource;
+
+    @Mock
+    private Asset asset;
+
+    private MockSlingHttpServletRequest request;
+
+    @Before
+    public void setUp() {
+        when(resourceResolver.getResource(ASSET_PATH)).thenReturn(assetResource);
+        when(assetResource.adaptTo(Asset.class)).thenReturn(asset);
+        when(asset.getPath()).thenReturn(ASSET_PATH);
+        when(asset.getMetadataValue(DamConstants.DC_TITLE)).thenReturn("Adobe Systems Logo and Wordmark");
+        request = new MockSlingHttpServletRequest(resourceResolver, context.bundleContext());
+    }
+
+    @Test
+    public void testLookupIsRequestScoped() {
+        AssetLookup assetLookup = AssetLookup.get(request);
+        assertSame(assetLookup, AssetLookup.get(request));
+        assertNotSame(assetLookup, AssetLookup.get(new MockSlingHttpServletRequest(resourceResolver, context.bundleContext())));
+        assertNotSame(assetLookup, AssetLookup.get(new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext())));
+    }
+
+    @Test
+    public void testAssetsAreResolvedOnce() {
+        AssetLookup assetLookup = AssetLookup.get(request);
+        assertSame(asset, assetLookup.getAsset(ASSET_PATH));
+        assertSame(asset, AssetLookup.get(request).getAsset(ASSET_PATH));
+        verify(resourceResolver, times(1)).getResource(ASSET_PATH);
+        assertNull(assetLookup.getAsset(MISSING_ASSET_PATH));
+        assertNull(assetLookup.getAsset(MISSING_ASSET_PATH));
+        verify(resourceResolver, times(1)).getResource(MISSING_ASSET_PATH);
+        assertNull(assetLookup.getAsset(null));
+    }
+
+    @Test
+    public void testMetadataIsReadOnce() {
+        AssetLookup assetLookup = AssetLookup.get(request);
+        assertEquals("Adobe Systems Logo and Wordmark", assetLookup.getMetadataValue(asset, DamConstants.DC_TITLE));
+        assertEquals("Adobe Systems Logo and Wordmark", assetLookup.getMetadataValue(asset, DamConstants.DC_TITLE));
+        verify(asset, times(1)).getMetadataValue(DamConstants.DC_TITLE);
+        assertNull(assetLookup.getMetadataValue(asset, DamConstants.DC_DESCRIPTION));
+        assertNull(assetLookup.getMetadataValue(asset, DamConstants.DC_DESCRIPTION));
+        verify(asset, times(1)).getMetadataValue(DamConstants.DC_DESCRIPTION);
+    }
+}
@@ -0,0 +1,86 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContentCacheTest {
+
+    @Test
+    public void testValuesAreLoadedOnce() {
+        ContentCache<String, String> cache = new ContentCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("a", cache.get("key", () -> {
+            loads.incrementAndGet();
+            return "a";
+        }));
+        assertEquals("a", cache.get("key", () -> "b"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        ContentCache<String, String> cache = new ContentCache<>(2);
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.get("a");
+        cache.put("c", "c");
+        assertEquals("a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Arrays.asList("a", "c"), cache.values());
+    }
+
+    @Test
+    public void testValuesComputedDuringInvalidationsAreNotCached() {
+        ContentCache<String, String> cache = new ContentCache<>(10);
+        long generation = cache.getGeneration();
+        cache.invalidate((key, value) -> false);
+        assertFalse(cache.put("a", "a", generation));
+        assertNull(cache.get("a"));
+        assertEquals("b", cache.get("a", () -> {
+            cache.invalidateAll();
+            return "b";
+        }));
+        assertNull(cache.get("a"));
+        assertTrue(cache.put("a", "a", cache.getGeneration()));
+        assertEquals("a", cache.get("a"));
+    }
+
+    @Test
+    public void testInvalidation() {
+        ContentCache<String, String> cache = new ContentCache<>(10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.invalidate((key, value) -> key.equals("a") || value.equals("2"));
+        assertEquals(Arrays.asList("3"), cache.values());
+        cache.remove("c");
+        assertTrue(cache.values().isEmpty());
+        String value = cache.computeIfAbsent("d", key -> key + "4");
+        assertSame(value, cache.computeIfAbsent("d", key -> "other"));
+        cache.invalidateAll();
+        assertNull(cache.get("d"));
+    }
+}
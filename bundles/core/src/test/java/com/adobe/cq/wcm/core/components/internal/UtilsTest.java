@@ -0,0 +1,77 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2017 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UtilsTest {
+
+    private static final String PAGE = "/content/site/page";
+
+    @Test
+    public void testSameOrDescendant() {
+        assertTrue(Utils.isSameOrDescendant(PAGE, PAGE));
+        assertTrue(Utils.isSameOrDescendant(PAGE + "/child", PAGE));
+        assertFalse(Utils.isSameOrDescendant(PAGE + "-2", PAGE));
+        assertFalse(Utils.isSameOrDescendant("/content/site", PAGE));
+        assertTrue(Utils.isOnSameBranch("/content/site", PAGE));
+        assertTrue(Utils.isOnSameBranch(PAGE + "/child", PAGE));
+        assertFalse(Utils.isOnSameBranch("/content/other", PAGE));
+    }
+
+    @Test
+    public void testPathCollections() {
+        List<String> paths = Arrays.asList("/content/other", PAGE + "/child");
+        assertTrue(Utils.isSameOrDescendant(PAGE + "/child/grandchild", paths));
+        assertFalse(Utils.isSameOrDescendant(PAGE, paths));
+        assertTrue(Utils.isOnSameBranch(paths, PAGE));
+        assertFalse(Utils.isOnSameBranch(paths, "/content/site/page-2"));
+        assertFalse(Utils.isOnSameBranch(Collections.emptyList(), PAGE));
+    }
+
+    @Test
+    public void testChangedPaths() {
+        assertEquals(ImmutableSet.of(PAGE, PAGE + "/jcr:content"),
+                Utils.getChangedPaths(Arrays.asList(change(PAGE), change(PAGE + "/jcr:content"), change(PAGE))));
+    }
+
+    @Test
+    public void testContainingPagePath() {
+        assertEquals(PAGE, Utils.getContainingPagePath(PAGE));
+        assertEquals(PAGE, Utils.getContainingPagePath(PAGE + "/jcr:content"));
+        assertEquals(PAGE, Utils.getContainingPagePath(PAGE + "/jcr:content/root/text"));
+        assertEquals(-1, Utils.getContentSegmentIndex(PAGE + "/jcr:contentx"));
+    }
+
+    private ResourceChange change(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
@@ -0,0 +1,100 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.sling.testing.mock.jcr.MockJcr;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChildPagesQueryTest {
+
+    private static final String PARENT_PAGE = "/content/list/pages";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/list", "/content/list");
+
+    @Test
+    public void testStatement() {
+        assertEquals("SELECT [jcr:path] FROM [cq:Page] AS page WHERE ISDESCENDANTNODE(page, '/content/list/pages')",
+                new ChildPagesQuery(PARENT_PAGE, 2).getStatement());
+        assertEquals("SELECT [jcr:path] FROM [cq:Page] AS page WHERE ISDESCENDANTNODE(page, '/content/o''brien')",
+                new ChildPagesQuery("/content/o'brien", 2).getStatement());
+    }
+
+    @Test
+    public void testCollectSkipsPagesBelowChildDepth() throws RepositoryException {
+        context.create().page(PARENT_PAGE + "/page_1/page_1_1/grandchild_1");
+        Session session = context.resourceResolver().adaptTo(Session.class);
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(session.getNode(PARENT_PAGE + "/page_1"));
+        nodes.add(session.getNode(PARENT_PAGE + "/page_1/page_1_1"));
+        nodes.add(session.getNode(PARENT_PAGE + "/page_1/page_1_1/grandchild_1"));
+        MockJcr.setQueryResult(session, nodes);
+
+        PageCollector collector = new PageCollector(0, null);
+        new ChildPagesQuery(PARENT_PAGE, 2).collect(context.resourceResolver(), collector);
+        List<Page> pages = collector.getPages();
+        assertEquals(2, pages.size());
+        assertEquals(PARENT_PAGE + "/page_1", pages.get(0).getPath());
+        assertEquals(PARENT_PAGE + "/page_1/page_1_1", pages.get(1).getPath());
+    }
+
+    @Test
+    public void testCollectReadsAllResultsOfOrderedLists() throws RepositoryException {
+        Session session = context.resourceResolver().adaptTo(Session.class);
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(session.getNode(PARENT_PAGE + "/page_2"));
+        nodes.add(session.getNode(PARENT_PAGE + "/page_1"));
+        MockJcr.setQueryResult(session, nodes);
+
+        PageCollector collector = new PageCollector(1, PageSortKey.byTitle(Locale.ENGLISH, false));
+        new ChildPagesQuery(PARENT_PAGE, 1).collect(context.resourceResolver(), collector);
+        List<Page> pages = collector.getPages();
+        assertEquals(1, pages.size());
+        assertEquals(PARENT_PAGE + "/page_1", pages.get(0).getPath());
+        assertEquals(2, collector.getAddedCount());
+    }
+
+    @Test
+    public void testCollectStopsWhenUnorderedListIsFull() throws RepositoryException {
+        Session session = context.resourceResolver().adaptTo(Session.class);
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(session.getNode(PARENT_PAGE + "/page_2"));
+        nodes.add(session.getNode(PARENT_PAGE + "/page_1"));
+        MockJcr.setQueryResult(session, nodes);
+
+        PageCollector collector = new PageCollector(1, null);
+        new ChildPagesQuery(PARENT_PAGE, 1).collect(context.resourceResolver(), collector);
+        List<Page> pages = collector.getPages();
+        assertEquals(1, pages.size());
+        assertEquals(PARENT_PAGE + "/page_2", pages.get(0).getPath());
+        assertEquals(1, collector.getAddedCount());
+    }
+}
@@ -0,0 +1,155 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ListPaginationTest {
+
+    private static final String LIST = "/content/list/listTypes/staticListType";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/list", "/content/list");
+
+    @Test
+    public void testUnpaged() {
+        ListPagination pagination = getPagination(null, ImmutableMap.of(ListPagination.PARAM_OFFSET, "10"));
+        assertFalse(pagination.isPaged());
+        assertEquals(5, pagination.getMaxItems(5));
+        assertEquals(0, pagination.getStart(20));
+        assertEquals(20, pagination.getEnd(20));
+        assertFalse(pagination.hasMore(20));
+    }
+
+    @Test
+    public void testParameters() {
+        ListPagination pagination = getPagination(null,
+                ImmutableMap.of(ListPagination.PARAM_OFFSET, "10", ListPagination.PARAM_LIMIT, "5"));
+        assertTrue(pagination.isPaged());
+        assertEquals(10, pagination.getOffset());
+        assertEquals(5, pagination.getLimit());
+        assertEquals(16, pagination.getMaxItems(0));
+        assertEquals(12, pagination.getMaxItems(12));
+        assertEquals(10, pagination.getStart(12));
+        assertEquals(12, pagination.getEnd(12));
+        assertFalse(pagination.hasMore(15));
+        assertTrue(pagination.hasMore(16));
+    }
+
+    @Test
+    public void testLargePagesAreCapped() {
+        ListPagination pagination = getPagination("offset-2000000000.limit-10", ImmutableMap.of());
+        assertEquals(2000000000, pagination.getOffset());
+        assertEquals(ListPagination.MAX_PAGED_ITEMS + 1, pagination.getMaxItems(0));
+        assertEquals(5, pagination.getMaxItems(5));
+        assertEquals(ListPagination.MAX_PAGED_ITEMS + 1, pagination.getStart(ListPagination.MAX_PAGED_ITEMS + 1));
+        assertFalse(pagination.hasMore(ListPagination.MAX_PAGED_ITEMS + 1));
+    }
+
+    @Test
+    public void testSelectors() {
+        ListPagination pagination = getPagination("offset-4.limit-2",
+                ImmutableMap.of(ListPagination.PARAM_OFFSET, "10", ListPagination.PARAM_LIMIT, "5"));
+        assertEquals(4, pagination.getOffset());
+        assertEquals(2, pagination.getLimit());
+        assertEquals(3, pagination.getStart(3));
+        assertEquals(3, pagination.getEnd(3));
+    }
+
+    @Test
+    public void testNextOffset() {
+        ListPagination first = getPagination("limit-3", ImmutableMap.of());
+        assertEquals(0, first.getOffset());
+        assertEquals(3, first.getNextOffset());
+        ListPagination second = getPagination("offset-" + first.getNextOffset() + ".limit-3", ImmutableMap.of());
+        assertEquals(6, second.getNextOffset());
+        ListPagination invalid = getPagination("limit-3.offset-%%%", ImmutableMap.of());
+        assertEquals(0, invalid.getOffset());
+        ListPagination negative = getPagination("limit-3.offset--3", ImmutableMap.of());
+        assertEquals(0, negative.getOffset());
+        ListPagination last = getPagination("offset-" + Integer.MAX_VALUE + ".limit-3", ImmutableMap.of());
+        assertEquals(Integer.MAX_VALUE, last.getNextOffset());
+    }
+
+    @Test
+    public void testNextUrlWithSelectors() {
+        Resource resource = context.currentResource(LIST);
+        MockSlingHttpServletRequest request = context.request();
+        request.setContextPath("");
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        requestPathInfo.setResourcePath(LIST);
+        requestPathInfo.setSelectorString("model.offset-10.limit-5");
+        requestPathInfo.setExtension("json");
+        ListPagination pagination = ListPagination.fromRequest(request, resource);
+        assertEquals(LIST + ".model.offset-15.limit-5.json", pagination.getNextUrl(request, resource));
+    }
+
+    @Test
+    public void testNextUrlWithParameters() {
+        Resource resource = context.resourceResolver().getResource(LIST);
+        String prefix = ListPagination.getParameterPrefix(resource);
+        assertTrue(prefix.matches("list-[0-9a-f]+-"));
+        MockSlingHttpServletRequest request = context.request();
+        request.setContextPath("");
+        request.setParameterMap(ImmutableMap.of(prefix + ListPagination.PARAM_OFFSET, "10", prefix + ListPagination.PARAM_LIMIT, "5",
+                "q", "a b"));
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        requestPathInfo.setResourcePath("/content/list/pages/page_1");
+        requestPathInfo.setExtension("html");
+        ListPagination pagination = ListPagination.fromRequest(request, resource);
+        assertEquals("/content/list/pages/page_1.html?q=a%20b&" + prefix + "offset=15&" + prefix + "limit=5",
+                pagination.getNextUrl(request, resource));
+    }
+
+    @Test
+    public void testParametersOfOtherComponents() {
+        MockSlingHttpServletRequest request = context.request();
+        request.setParameterMap(ImmutableMap.of(ListPagination.PARAM_LIMIT, "5",
+                ListPagination.getParameterPrefix(context.currentResource("/content/list/listTypes/childrenListType")) +
+                        ListPagination.PARAM_LIMIT, "3"));
+        assertFalse(ListPagination.fromRequest(request, context.currentResource(LIST)).isPaged());
+    }
+
+    /**
+     * Reads the pagination of a list from a request with the given selectors and with the given parameters addressed to the list.
+     */
+    private ListPagination getPagination(String selectorString, ImmutableMap<String, Object> parameters) {
+        Resource resource = context.currentResource(LIST);
+        MockSlingHttpServletRequest request = context.request();
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSelectorString(selectorString);
+        Map<String, Object> listParameters = new HashMap<>();
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            listParameters.put(ListPagination.getParameterPrefix(resource) + parameter.getKey(), parameter.getValue());
+        }
+        request.setParameterMap(listParameters);
+        return ListPagination.fromRequest(request, resource);
+    }
+}
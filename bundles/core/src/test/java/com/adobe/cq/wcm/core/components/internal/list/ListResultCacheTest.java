@@ -0,0 +1,179 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.sightly.WCMBindings;
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.models.List;
+import com.day.cq.wcm.api.designer.Style;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ListResultCacheTest {
+
+    private static final String CURRENT_PAGE = "/content/list";
+    private static final String CHILDREN_LIST = "/content/list/listTypes/childrenListType";
+    private static final String PARENT_PAGE = "/content/list/pages/page_1";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/list", CURRENT_PAGE);
+
+    private ListResultCache listResultCache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        listResultCache = context.registerInjectActivateService(new ListResultCache());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testResultIsCached() {
+        ListResultCache.Key key = new ListResultCache.Key(CHILDREN_LIST, "a", null, "user", 0);
+        assertEquals(Collections.singletonList(PARENT_PAGE + "/page_1_1"), getPagePaths(key, PARENT_PAGE, false));
+        assertEquals(Collections.singletonList(PARENT_PAGE + "/page_1_1"), getPagePaths(key, PARENT_PAGE, false));
+        assertEquals(1, loads.get());
+        getPagePaths(new ListResultCache.Key(CHILDREN_LIST, "b", null, "user", 0), PARENT_PAGE, false);
+        getPagePaths(new ListResultCache.Key(CHILDREN_LIST, "a", "/conf/policy", "user", 0), PARENT_PAGE, false);
+        getPagePaths(new ListResultCache.Key(CHILDREN_LIST, "a", null, "anotherUser", 0), PARENT_PAGE, false);
+        getPagePaths(new ListResultCache.Key(CHILDREN_LIST, "a", null, "user", 3), PARENT_PAGE, false);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void testChangesUnderWatchedPathsEvictResults() {
+        ListResultCache.Key key = new ListResultCache.Key(CHILDREN_LIST, "a", null, null, 0);
+        getPagePaths(key, PARENT_PAGE, false);
+        listResultCache.onChange(Collections.singletonList(getChange("/content/list/pages/page_2")));
+        getPagePaths(key, PARENT_PAGE, false);
+        assertEquals(1, loads.get());
+        listResultCache.onChange(Collections.singletonList(getChange(PARENT_PAGE + "/page_1_1/jcr:content")));
+        getPagePaths(key, PARENT_PAGE, false);
+        assertEquals(2, loads.get());
+        listResultCache.onChange(Collections.singletonList(getChange("/content/list/pages")));
+        getPagePaths(key, PARENT_PAGE, false);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testTagChangesEvictTagResults() {
+        ListResultCache.Key tagsKey = new ListResultCache.Key(CHILDREN_LIST, "tags", null, null, 0);
+        ListResultCache.Key childrenKey = new ListResultCache.Key(CHILDREN_LIST, "children", null, null, 0);
+        getPagePaths(tagsKey, PARENT_PAGE, true);
+        getPagePaths(childrenKey, PARENT_PAGE, false);
+        listResultCache.onChange(Collections.singletonList(getChange(ListResultCache.LEGACY_TAGS_ROOT + "/list/tag1")));
+        listResultCache.onChange(Collections.singletonList(getChange(ListResultCache.TAGS_ROOT + "/list/tag1")));
+        getPagePaths(tagsKey, PARENT_PAGE, true);
+        getPagePaths(childrenKey, PARENT_PAGE, false);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testResultsLoadedDuringChangesAreNotCached() {
+        ListResultCache.Key key = new ListResultCache.Key(CHILDREN_LIST, "a", null, null, 0);
+        listResultCache.getResult(key, () -> {
+            loads.incrementAndGet();
+            listResultCache.onChange(Collections.singletonList(getChange("/content/other")));
+            return new ListResultCache.Result(Collections.emptyList(), 0, Collections.singletonList(PARENT_PAGE), false);
+        });
+        getPagePaths(key, PARENT_PAGE, false);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testListUsesCachedPagePaths() throws Exception {
+        assertEquals(3, getListUnderTest().getItems().size());
+        context.create().page(PARENT_PAGE + "/page_1_4");
+        // the cache wasn't notified yet
+        assertEquals(3, getListUnderTest().getItems().size());
+        listResultCache.onChange(Collections.singletonList(getChange(PARENT_PAGE + "/page_1_4")));
+        assertEquals(4, getListUnderTest().getItems().size());
+        context.resourceResolver().delete(context.resourceResolver().getResource(PARENT_PAGE + "/page_1_4"));
+        // pages which can't be resolved anymore are skipped
+        assertEquals(3, getListUnderTest().getItems().size());
+    }
+
+    @Test
+    public void testPaginatedListIsCachedPerPage() {
+        List list = getListUnderTest("limit-2");
+        assertEquals(2, list.getItems().size());
+        assertTrue(list.hasMore());
+        // only the items up to the requested page were collected and cached
+        assertNull(list.getTotal());
+        list = getListUnderTest("limit-2");
+        assertEquals(2, list.getItems().size());
+        assertTrue(list.hasMore());
+        list = getListUnderTest("offset-2.limit-2");
+        assertEquals(1, list.getItems().size());
+        assertEquals(Integer.valueOf(3), list.getTotal());
+    }
+
+    private java.util.List<String> getPagePaths(ListResultCache.Key key, String watchedPath, boolean watchesTags) {
+        return listResultCache.getResult(key, () -> {
+            loads.incrementAndGet();
+            return new ListResultCache.Result(Collections.singletonList(PARENT_PAGE + "/page_1_1"), 1, Arrays.asList(watchedPath),
+                    watchesTags);
+        }).getPagePaths();
+    }
+
+    private ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private List getListUnderTest() {
+        return getListUnderTest(null);
+    }
+
+    private List getListUnderTest(String selectorString) {
+        Resource resource = context.resourceResolver().getResource(CHILDREN_LIST);
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext());
+        request.setResource(resource);
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSelectorString(selectorString);
+        SlingBindings bindings = new SlingBindings();
+        bindings.put(SlingBindings.RESOURCE, resource);
+        bindings.put(SlingBindings.REQUEST, request);
+        bindings.put(WCMBindings.PROPERTIES, resource.getValueMap());
+        Style style = mock(Style.class);
+        when(style.get(any(), any(Object.class))).thenAnswer(
+                invocation -> invocation.getArguments()[1]
+        );
+        bindings.put(WCMBindings.CURRENT_STYLE, style);
+        bindings.put(WCMBindings.CURRENT_PAGE, context.pageManager().getPage(CURRENT_PAGE));
+        request.setAttribute(SlingBindings.class.getName(), bindings);
+        return request.adaptTo(List.class);
+    }
+}
@@ -0,0 +1,110 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.day.cq.wcm.api.Page;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PageCollectorTest {
+
+    private static final Function<Page, PageSortKey> BY_TITLE = PageSortKey.byTitle(Locale.ENGLISH, false);
+
+    @Test
+    public void testUnboundedUnorderedCollector() {
+        PageCollector collector = new PageCollector(0, null);
+        List<Page> pages = pages("c", "a", "b");
+        pages.forEach(collector::add);
+        assertFalse(collector.isFull());
+        assertEquals(pages, collector.getPages());
+    }
+
+    @Test
+    public void testBoundedUnorderedCollectorIsFull() {
+        PageCollector collector = new PageCollector(2, null);
+        List<Page> pages = pages("c", "a", "b");
+        collector.add(pages.get(0));
+        assertFalse(collector.isFull());
+        collector.add(pages.get(1));
+        assertTrue(collector.isFull());
+        collector.add(pages.get(2));
+        assertEquals(pages.subList(0, 2), collector.getPages());
+    }
+
+    @Test
+    public void testUnboundedOrderedCollector() {
+        PageCollector collector = new PageCollector(0, BY_TITLE);
+        List<Page> pages = pages("c", "a", "b");
+        pages.forEach(collector::add);
+        assertEquals(titles("a", "b", "c"), titles(collector.getPages()));
+    }
+
+    @Test
+    public void testBoundedOrderedCollectorKeepsBestPages() {
+        PageCollector collector = new PageCollector(3, BY_TITLE);
+        pages("f", "b", "e", "a", "d", "c", "g").forEach(collector::add);
+        assertFalse(collector.isFull());
+        assertEquals(titles("a", "b", "c"), titles(collector.getPages()));
+    }
+
+    @Test
+    public void testBoundedOrderedCollectorIsStable() {
+        PageCollector collector = new PageCollector(2, BY_TITLE);
+        List<Page> pages = pages("b", "a", "a", "a");
+        pages.forEach(collector::add);
+        List<Page> collected = collector.getPages();
+        assertEquals(2, collected.size());
+        assertEquals(pages.get(1), collected.get(0));
+        assertEquals(pages.get(2), collected.get(1));
+    }
+
+    private List<Page> pages(String... titles) {
+        List<Page> pages = new ArrayList<>();
+        for (String title : titles) {
+            Page page = mock(Page.class);
+            when(page.getTitle()).thenReturn(title);
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    private List<String> titles(String... titles) {
+        List<String> list = new ArrayList<>();
+        for (String title : titles) {
+            list.add(title);
+        }
+        return list;
+    }
+
+    private List<String> titles(List<Page> pages) {
+        List<String> titles = new ArrayList<>();
+        for (Page page : pages) {
+            titles.add(page.getTitle());
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,96 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.day.cq.wcm.api.Page;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PageSortKeyTest {
+
+    @Test
+    public void testTitlesAreCollated() {
+        Function<Page, PageSortKey> byTitle = PageSortKey.byTitle(Locale.GERMAN, false);
+        // plain string comparison sorts lower case letters and umlauts after all the upper case letters
+        assertTrue(byTitle.apply(titled("apfel")).compareTo(byTitle.apply(titled("Birne"))) < 0);
+        assertTrue(byTitle.apply(titled("Äpfel")).compareTo(byTitle.apply(titled("Zitrone"))) < 0);
+        assertTrue(byTitle.apply(titled("Zitrone")).compareTo(byTitle.apply(titled("Äpfel"))) > 0);
+    }
+
+    @Test
+    public void testMissingTitles() {
+        Function<Page, PageSortKey> ascending = PageSortKey.byTitle(Locale.ENGLISH, false);
+        assertTrue(ascending.apply(titled(null)).compareTo(ascending.apply(titled("a"))) > 0);
+        assertEquals(0, ascending.apply(titled(null)).compareTo(ascending.apply(titled(null))));
+        Function<Page, PageSortKey> descending = PageSortKey.byTitle(Locale.ENGLISH, true);
+        assertTrue(descending.apply(titled(null)).compareTo(descending.apply(titled("a"))) < 0);
+        assertTrue(descending.apply(titled("a")).compareTo(descending.apply(titled("b"))) > 0);
+    }
+
+    @Test
+    public void testLastModified() {
+        Function<Page, PageSortKey> ascending = PageSortKey.byLastModified(false);
+        Page older = modified(1000L);
+        Page newer = modified(2000L);
+        Page unknown = modified(null);
+        assertTrue(ascending.apply(older).compareTo(ascending.apply(newer)) < 0);
+        assertTrue(ascending.apply(unknown).compareTo(ascending.apply(newer)) > 0);
+        Function<Page, PageSortKey> descending = PageSortKey.byLastModified(true);
+        assertTrue(descending.apply(older).compareTo(descending.apply(newer)) > 0);
+        assertTrue(descending.apply(unknown).compareTo(descending.apply(newer)) < 0);
+    }
+
+    @Test
+    public void testPropertiesAreReadOncePerPage() {
+        PageCollector collector = new PageCollector(0, PageSortKey.byLastModified(false));
+        Page[] pages = {modified(3000L), modified(1000L), modified(2000L), modified(null)};
+        for (Page page : pages) {
+            collector.add(page);
+        }
+        assertEquals(pages[1], collector.getPages().get(0));
+        for (Page page : pages) {
+            verify(page, times(1)).getLastModified();
+        }
+    }
+
+    private Page titled(String title) {
+        Page page = mock(Page.class);
+        when(page.getTitle()).thenReturn(title);
+        return page;
+    }
+
+    private Page modified(Long time) {
+        Page page = mock(Page.class);
+        Calendar lastModified = null;
+        if (time != null) {
+            lastModified = Calendar.getInstance();
+            lastModified.setTimeInMillis(time);
+        }
+        when(page.getLastModified()).thenReturn(lastModified);
+        return page;
+    }
+}
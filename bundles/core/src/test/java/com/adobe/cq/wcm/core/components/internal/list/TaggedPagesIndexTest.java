@@ -0,0 +1,103 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.list;
+
+import java.util.Collections;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaggedPagesIndexTest {
+
+    private static final String ROOT = "/content/list/pages/page_1";
+    private static final String TAG = "list:test_category/test_tag";
+    private static final String OTHER_TAG = "list:other";
+    private static final String TAGGED_CONTENT = ROOT + "/page_1_3/jcr:content";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/list", "/content/list");
+
+    private TaggedPagesIndex taggedPagesIndex;
+
+    @Before
+    public void setUp() {
+        context.load().json("/list/test-etc.json", "/etc/tags/list");
+        context.create().resource("/etc/tags/list/other", "jcr:primaryType", "cq:Tag");
+        taggedPagesIndex = context.registerInjectActivateService(new TaggedPagesIndex());
+    }
+
+    @Test
+    public void testTaggedResourcesAreIndexed() throws PersistenceException {
+        assertEquals(Collections.singletonList(TAGGED_CONTENT), find(true, TAG));
+        tag(ROOT + "/page_1_2/jcr:content", TAG);
+        // the index wasn't notified yet
+        assertEquals(Collections.singletonList(TAGGED_CONTENT), find(true, TAG));
+        taggedPagesIndex.onChange(Collections.singletonList(getChange(ROOT + "/page_1_2/jcr:content")));
+        assertEquals(2, find(true, TAG).size());
+    }
+
+    @Test
+    public void testMatchAnyAndAllTags() throws PersistenceException {
+        String bothTags = ROOT + "/page_1_1/jcr:content";
+        String otherTag = ROOT + "/page_1_2/jcr:content";
+        tag(bothTags, TAG, OTHER_TAG);
+        tag(otherTag, OTHER_TAG);
+        assertEquals(Collections.singletonList(bothTags), find(false, TAG, OTHER_TAG));
+        java.util.List<String> any = find(true, TAG, OTHER_TAG);
+        assertEquals(3, any.size());
+        assertTrue(any.contains(TAGGED_CONTENT));
+        assertTrue(any.contains(bothTags));
+        assertTrue(any.contains(otherTag));
+        assertTrue(find(true).isEmpty());
+    }
+
+    @Test
+    public void testTagChangesClearIndex() throws PersistenceException {
+        assertEquals(1, find(true, TAG).size());
+        tag(ROOT + "/page_1_2/jcr:content", TAG);
+        taggedPagesIndex.onChange(Collections.singletonList(getChange("/content/other")));
+        assertEquals(1, find(true, TAG).size());
+        taggedPagesIndex.onChange(Collections.singletonList(getChange(ListResultCache.LEGACY_TAGS_ROOT + "/list/test_category")));
+        assertEquals(2, find(true, TAG).size());
+    }
+
+    private java.util.List<String> find(boolean matchAny, String... tags) {
+        return taggedPagesIndex.getTaggedResources(context.resourceResolver(), ROOT, tags, matchAny);
+    }
+
+    private void tag(String path, String... tags) throws PersistenceException {
+        context.resourceResolver().getResource(path).adaptTo(ModifiableValueMap.class).put("cq:tags", tags);
+        context.resourceResolver().commit();
+    }
+
+    private ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.ClassRule;
 
 import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
 import com.adobe.cq.wcm.core.components.internal.servlets.AdaptiveImageServlet;
+import com.adobe.cq.wcm.core.components.internal.servlets.ImageDimensionsProvider;
 import com.adobe.cq.wcm.core.components.testing.MockAdapterFactory;
 import com.day.cq.dam.commons.handler.StandardImageHandler;
 import com.day.cq.wcm.api.policies.ContentPolicyManager;
@@ -126,6 +127,7 @@ public class AbstractImageTest {
         aemContext.load().binaryFile("/image/" + _1PX_IMAGE_BINARY_NAME, PNG20_FILE_PATH, StandardImageHandler.PNG1_MIMETYPE);
         aemContext.load().binaryFile("/image/" + PNG_IMAGE_BINARY_NAME, PNG23_FILE_PATH, StandardImageHandler.PNG1_MIMETYPE);
         aemContext.registerInjectActivateService(new MockAdapterFactory());
+        aemContext.registerInjectActivateService(new ImageDimensionsProvider());
         contentPolicyManager = mock(ContentPolicyManager.class);
         aemContext.registerAdapter(ResourceResolver.class, ContentPolicyManager.class,
                 new Function<ResourceResolver, ContentPolicyManager>() {
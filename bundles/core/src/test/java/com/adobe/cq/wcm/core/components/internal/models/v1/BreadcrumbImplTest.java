@@ -19,12 +19,14 @@ package com.adobe.cq.wcm.core.components.internal.models.v1;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.adobe.cq.sightly.WCMBindings;
 import com.adobe.cq.wcm.core.components.Utils;
 import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.navigation.AncestorChainCache;
 import com.adobe.cq.wcm.core.components.models.Breadcrumb;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.designer.Style;
@@ -50,6 +52,11 @@ public class BreadcrumbImplTest {
     @ClassRule
     public static final AemContext CONTEXT = CoreComponentTestContext.createContext(TEST_BASE, "/content/breadcrumb/women");
 
+    @BeforeClass
+    public static void setUp() {
+        CONTEXT.registerInjectActivateService(new AncestorChainCache());
+    }
+
     @Test
     public void testBreadcrumbItems() throws Exception {
         Breadcrumb breadcrumb = getBreadcrumbUnderTest(BREADCRUMB_1);
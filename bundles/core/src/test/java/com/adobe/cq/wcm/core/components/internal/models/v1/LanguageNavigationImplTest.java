@@ -30,6 +30,7 @@ import org.mockito.Matchers;
 import com.adobe.cq.sightly.WCMBindings;
 import com.adobe.cq.wcm.core.components.Utils;
 import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.navigation.LanguageNavigationIndex;
 import com.adobe.cq.wcm.core.components.models.LanguageNavigation;
 import com.adobe.cq.wcm.core.components.models.LanguageNavigationItem;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
@@ -85,6 +86,7 @@ public class LanguageNavigationImplTest {
                 (Function<ResourceResolver, ContentPolicyManager>) resourceResolver -> contentPolicyManager
         );
         AEM_CONTEXT.load().json("/languagenavigation/test-conf.json", "/conf");
+        AEM_CONTEXT.registerInjectActivateService(new LanguageNavigationIndex());
     }
 
     @Test
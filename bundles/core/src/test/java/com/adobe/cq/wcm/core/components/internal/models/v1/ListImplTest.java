@@ -22,6 +22,7 @@ import javax.jcr.Session;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
 import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -39,6 +40,8 @@ import com.day.cq.wcm.api.designer.Style;
 import io.wcm.testing.mock.aem.junit.AemContext;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -109,6 +112,14 @@ public class ListImplTest {
         Utils.testJSONExport(list, Utils.getTestExporterJSONPath(TEST_BASE, LIST_5));
     }
 
+    @Test
+    public void testTagsListTypeListsTaggedPagesOnce() throws Exception {
+        CONTEXT.create().resource("/content/list/pages/page_1/page_1_3/jcr:content/tagged", "cq:tags",
+                new String[]{"list:test_category/test_tag"});
+        List list = getListUnderTest(LIST_5);
+        checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_1/page_1_3"});
+    }
+
     @Test
     public void testSearchListType() throws Exception {
         Session mockSession = mock(Session.class);
@@ -187,13 +198,54 @@ public class ListImplTest {
         checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_1", "/content/list/pages/page_2", "/content/list/pages/page_4"});
     }
 
+    @Test
+    public void testPagination() {
+        List list = getListUnderTest(LIST_3, "limit-2");
+        checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_1/page_1_1", "/content/list/pages/page_1/page_1_2"});
+        assertTrue(list.hasMore());
+        // the source was only read up to the requested page
+        assertNull(list.getTotal());
+        assertEquals(Integer.valueOf(2), list.getNextOffset());
+        assertEquals(LIST_3 + ".offset-2.limit-2", list.getNextUrl());
+        list = getListUnderTest(LIST_3, "limit-2.offset-" + list.getNextOffset());
+        checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_1/page_1_3"});
+        assertFalse(list.hasMore());
+        assertEquals(Integer.valueOf(3), list.getTotal());
+        assertNull(list.getNextOffset());
+        assertNull(list.getNextUrl());
+    }
+
+    @Test
+    public void testPaginationWithMaxItems() {
+        List list = getListUnderTest(LIST_11, "limit-5");
+        checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_1"});
+        assertFalse(list.hasMore());
+        // the list is limited to one item, so all its items were read
+        assertEquals(Integer.valueOf(1), list.getTotal());
+    }
+
+    @Test
+    public void testPaginationWithOrder() {
+        List list = getListUnderTest(LIST_8, "limit-1");
+        checkListConsistencyByPaths(list, new String[]{"/content/list/pages/page_2"});
+        assertTrue(list.hasMore());
+        // an ordered list reads all the pages of its source, even if it only keeps the ones up to the requested page
+        assertEquals(Integer.valueOf(2), list.getTotal());
+    }
+
     private List getListUnderTest(String resourcePath) {
+        return getListUnderTest(resourcePath, null);
+    }
+
+    private List getListUnderTest(String resourcePath, String selectorString) {
         Resource resource = CONTEXT.resourceResolver().getResource(resourcePath);
         if (resource == null) {
             throw new IllegalStateException("Did you forget to defines test resource " + resourcePath + "?");
         }
         MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(CONTEXT.resourceResolver(), CONTEXT.bundleContext());
         request.setResource(resource);
+        request.setContextPath("");
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSelectorString(selectorString);
         SlingBindings bindings = new SlingBindings();
         bindings.put(SlingBindings.RESOURCE, resource);
         bindings.put(SlingBindings.REQUEST, request);
@@ -34,6 +34,8 @@ import org.mockito.Matchers;
 import com.adobe.cq.sightly.WCMBindings;
 import com.adobe.cq.wcm.core.components.Utils;
 import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.navigation.LocalizedRootResolver;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeCache;
 import com.adobe.cq.wcm.core.components.models.Navigation;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.adobe.cq.wcm.core.components.testing.MockContentPolicyStyle;
@@ -137,6 +139,8 @@ public class NavigationImplTest {
                 }
         );
         AEM_CONTEXT.registerService(LiveRelationshipManager.class, relationshipManager);
+        AEM_CONTEXT.registerInjectActivateService(new LocalizedRootResolver());
+        AEM_CONTEXT.registerInjectActivateService(new NavigationTreeCache());
     }
 
     @Test
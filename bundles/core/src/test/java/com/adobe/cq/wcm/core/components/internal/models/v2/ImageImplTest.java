@@ -88,6 +88,25 @@ public class ImageImplTest extends com.adobe.cq.wcm.core.components.internal.mod
         Utils.testJSONExport(image, Utils.getTestExporterJSONPath(testBase, AbstractImageTest.IMAGE4_PATH));
     }
 
+    @Test
+    public void testImageWithSrcset() {
+        Image image = getImageUnderTest(IMAGE22_PATH);
+        String escapedResourcePath = CONTEXT_PATH + IMAGE22_PATH.replace("jcr:content", "_jcr_content");
+        assertEquals(escapedResourcePath + "." + selector + ".600.png/1494867377756.png 600w, " + escapedResourcePath + "." + selector +
+                ".1200.png/1494867377756.png 1200w", image.getSrcset());
+        assertEquals("(min-width: 1024px) 50vw, 100vw", image.getSizes());
+        Utils.testJSONExport(image, Utils.getTestExporterJSONPath(testBase, IMAGE22_PATH));
+    }
+
+    @Test
+    public void testImageWithoutSrcset() {
+        Image image = getImageUnderTest(AbstractImageTest.IMAGE0_PATH);
+        assertNull(image.getSrcset());
+        assertNull(image.getSizes());
+        image = getImageUnderTest(AbstractImageTest.IMAGE3_PATH);
+        assertNull(image.getSrcset());
+    }
+
     @Test
     public void testImageWithAltAndTitleFromDAM() {
         Image image = getImageUnderTest(IMAGE20_PATH);
@@ -30,6 +30,7 @@ import com.day.cq.wcm.api.designer.Style;
 import io.wcm.testing.mock.aem.junit.AemContext;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -61,6 +62,12 @@ public class ListImplTest {
         Utils.testJSONExport(list, Utils.getTestExporterJSONPath(TEST_BASE, LIST_1));
     }
 
+    @Test
+    public void testListItemsAreCreatedOnce() {
+        List list = getListUnderTest(LIST_1);
+        assertSame(list.getListItems(), list.getListItems());
+    }
+
     private List getListUnderTest(String resourcePath) {
         Resource resource = CONTEXT.resourceResolver().getResource(resourcePath);
         if (resource == null) {
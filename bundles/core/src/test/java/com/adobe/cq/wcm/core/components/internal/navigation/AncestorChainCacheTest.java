@@ -0,0 +1,137 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Collections;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.day.cq.wcm.api.Page;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AncestorChainCacheTest {
+
+    private static final String ROOT_PAGE = "/content/breadcrumb/women";
+    private static final String SHIRTS_PAGE = ROOT_PAGE + "/shirts";
+    private static final String CURRENT_PAGE = SHIRTS_PAGE + "/devi-sleeveless-shirt";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/breadcrumb", ROOT_PAGE);
+
+    private AncestorChainCache ancestorChainCache;
+    private Page currentPage;
+
+    @Before
+    public void setUp() {
+        ancestorChainCache = context.registerInjectActivateService(new AncestorChainCache());
+        currentPage = context.pageManager().getPage(CURRENT_PAGE);
+    }
+
+    @Test
+    public void testChain() {
+        AncestorChain chain = ancestorChainCache.getChain(currentPage);
+        assertEquals(currentPage.getDepth(), chain.getDepth());
+        assertNull(chain.getAncestor(0));
+        assertNull(chain.getAncestor(1));
+        assertNull(chain.getAncestor(chain.getDepth()));
+        AncestorChain.Ancestor shirts = chain.getAncestor(3);
+        assertNotNull(shirts);
+        assertEquals(SHIRTS_PAGE, shirts.getPath());
+        assertEquals("Shirts", shirts.getTitle());
+        assertEquals(3, shirts.getLevel());
+        assertTrue(shirts.isHideInNav());
+        AncestorChain.Ancestor current = chain.getAncestor(4);
+        assertNotNull(current);
+        assertEquals(CURRENT_PAGE, current.getPath());
+        assertFalse(current.isHideInNav());
+        AncestorChain.Ancestor root = chain.getRoot();
+        assertNotNull(root);
+        assertEquals(ROOT_PAGE, root.getPath());
+        assertEquals("Women", root.getTitle());
+        assertEquals("women", root.getName());
+        assertNull(root.getPageTitle());
+        assertNull(root.getVanityUrl());
+        assertNull(root.getRedirectTarget());
+    }
+
+    @Test
+    public void testChainHoldsUrlProperties() {
+        Page page = context.create().page(SHIRTS_PAGE + "/redirecting", null, ImmutableMap.<String, Object>of(
+                PageImpl.PN_REDIRECT_TARGET, " " + CURRENT_PAGE + " ", "sling:vanityPath", "/redirecting-vanity"));
+        AncestorChain.Ancestor ancestor = ancestorChainCache.getChain(page).getAncestor(page.getDepth() - 1);
+        assertNotNull(ancestor);
+        assertEquals(CURRENT_PAGE, ancestor.getRedirectTarget());
+        assertEquals("/redirecting-vanity", ancestor.getVanityUrl());
+    }
+
+    @Test
+    public void testChainMatchesUncachedChain() {
+        AncestorChain cached = ancestorChainCache.getChain(currentPage);
+        AncestorChain built = AncestorChain.build(currentPage);
+        assertEquals(built.getDepth(), cached.getDepth());
+        for (int level = 0; level < built.getDepth(); level++) {
+            AncestorChain.Ancestor expected = built.getAncestor(level);
+            AncestorChain.Ancestor actual = cached.getAncestor(level);
+            assertEquals(expected == null, actual == null);
+            if (expected != null) {
+                assertEquals(expected.getPath(), actual.getPath());
+                assertEquals(expected.getNavigationTitle(), actual.getNavigationTitle());
+            }
+        }
+    }
+
+    @Test
+    public void testChainIsSharedUntilAncestorChanges() {
+        AncestorChain chain = ancestorChainCache.getChain(currentPage);
+        assertSame(chain, ancestorChainCache.getChain(currentPage));
+
+        // changes of descendants or of other pages don't affect the chain
+        ancestorChainCache.onChange(Collections.singletonList(change(CURRENT_PAGE + "/child")));
+        ancestorChainCache.onChange(Collections.singletonList(change("/content/other/jcr:content")));
+        assertSame(chain, ancestorChainCache.getChain(currentPage));
+
+        AncestorChain shirtsChain = ancestorChainCache.getChain(context.pageManager().getPage(SHIRTS_PAGE));
+        context.resourceResolver().getResource(SHIRTS_PAGE + "/jcr:content").adaptTo(ModifiableValueMap.class).put("hideInNav", false);
+        ancestorChainCache.onChange(Collections.singletonList(change(SHIRTS_PAGE + "/jcr:content")));
+        AncestorChain updatedChain = ancestorChainCache.getChain(currentPage);
+        assertNotSame(chain, updatedChain);
+        assertFalse(updatedChain.getAncestor(3).isHideInNav());
+        assertNotSame(shirtsChain, ancestorChainCache.getChain(context.pageManager().getPage(SHIRTS_PAGE)));
+    }
+
+    private ResourceChange change(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
@@ -0,0 +1,110 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LanguageNavigationIndexTest {
+
+    private static final String NAVIGATION_ROOT = "/content/languagenavigation";
+    private static final String ABOUT_PAGE = NAVIGATION_ROOT + "/LOCALE-1/LOCALE-5/about";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/languagenavigation", "/content");
+
+    private LanguageNavigationIndex index;
+    private Page rootPage;
+
+    @Before
+    public void setUp() {
+        index = context.registerInjectActivateService(new LanguageNavigationIndex());
+        rootPage = context.pageManager().getPage(NAVIGATION_ROOT);
+    }
+
+    @Test
+    public void testLanguageRoots() {
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1", NAVIGATION_ROOT + "/LOCALE-2"), index.getLanguageRoots(rootPage, 1, ABOUT_PAGE));
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1", NAVIGATION_ROOT + "/LOCALE-2", NAVIGATION_ROOT + "/LOCALE-1/LOCALE-5",
+                NAVIGATION_ROOT + "/LOCALE-2/LOCALE-5"), index.getLanguageRoots(rootPage, 2, ABOUT_PAGE));
+        // every language root is the language copy of the pages above the language roots
+        assertEquals(5, index.getLanguageRoots(rootPage, 1, NAVIGATION_ROOT).size());
+        assertTrue(index.getLanguageRoots(rootPage, 0, ABOUT_PAGE).isEmpty());
+    }
+
+    @Test
+    public void testRelativePath() {
+        assertEquals("/LOCALE-5/about", LanguageNavigationIndex.getRelativePath(ABOUT_PAGE, 3));
+        assertEquals("", LanguageNavigationIndex.getRelativePath(ABOUT_PAGE, 5));
+        assertEquals("", LanguageNavigationIndex.getRelativePath(NAVIGATION_ROOT, 3));
+    }
+
+    @Test
+    public void testPageChanges() throws PersistenceException {
+        assertEquals(2, index.getLanguageRoots(rootPage, 1, ABOUT_PAGE).size());
+
+        // page content changes are ignored
+        index.onChange(Collections.singletonList(change(NAVIGATION_ROOT + "/LOCALE-3/jcr:content")));
+
+        context.create().page(NAVIGATION_ROOT + "/LOCALE-3/LOCALE-5");
+        context.create().page(NAVIGATION_ROOT + "/LOCALE-3/LOCALE-5/about");
+        index.onChange(Collections.singletonList(change(NAVIGATION_ROOT + "/LOCALE-3/LOCALE-5")));
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1", NAVIGATION_ROOT + "/LOCALE-2", NAVIGATION_ROOT + "/LOCALE-3"),
+                index.getLanguageRoots(rootPage, 1, ABOUT_PAGE));
+
+        Resource removed = context.resourceResolver().getResource(NAVIGATION_ROOT + "/LOCALE-2/LOCALE-5");
+        context.resourceResolver().delete(removed);
+        index.onChange(Collections.singletonList(change(NAVIGATION_ROOT + "/LOCALE-2/LOCALE-5")));
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1", NAVIGATION_ROOT + "/LOCALE-3"), index.getLanguageRoots(rootPage, 1, ABOUT_PAGE));
+
+        // a removed language root triggers a rebuild of the index
+        context.resourceResolver().delete(context.resourceResolver().getResource(NAVIGATION_ROOT + "/LOCALE-3"));
+        index.onChange(Collections.singletonList(change(NAVIGATION_ROOT + "/LOCALE-3")));
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1"), index.getLanguageRoots(rootPage, 1, ABOUT_PAGE));
+
+        // a removed navigation root drops the index
+        index.onChange(Collections.singletonList(change("/content")));
+        assertEquals(set(NAVIGATION_ROOT + "/LOCALE-1"), index.getLanguageRoots(rootPage, 1, ABOUT_PAGE));
+    }
+
+    private ResourceChange change(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,153 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.jcr.RangeIterator;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.testing.MockLanguageManager;
+import com.day.cq.wcm.api.LanguageManager;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.msm.api.LiveRelationship;
+import com.day.cq.wcm.msm.api.LiveRelationshipManager;
+import com.day.cq.wcm.msm.api.RolloutManager;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LocalizedRootResolverTest {
+
+    private static final String BLUEPRINT = "/content/navigation-blueprint";
+    private static final String LIVE_COPY = "/content/navigation-livecopy";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private LiveRelationshipManager relationshipManager;
+    private LocalizedRootResolver localizedRootResolver;
+
+    @Before
+    public void setUp() throws Exception {
+        relationshipManager = mock(LiveRelationshipManager.class);
+        when(relationshipManager.getLiveRelationships(any(Resource.class), any(String.class), any(RolloutManager.Trigger.class)))
+                .then(invocation -> {
+                    Resource resource = invocation.getArgumentAt(0, Resource.class);
+                    if (BLUEPRINT.equals(resource.getPath())) {
+                        LiveRelationship liveRelationship = mock(LiveRelationship.class);
+                        when(liveRelationship.getTargetPath()).thenReturn(LIVE_COPY);
+                        RangeIterator rangeIterator = mock(RangeIterator.class);
+                        Iterator<LiveRelationship> iterator = Collections.singletonList(liveRelationship).iterator();
+                        when(rangeIterator.hasNext()).then(hasNext -> iterator.hasNext());
+                        when(rangeIterator.next()).then(next -> iterator.next());
+                        return rangeIterator;
+                    }
+                    return null;
+                });
+        context.registerService(LanguageManager.class, new MockLanguageManager());
+        context.registerService(LiveRelationshipManager.class, relationshipManager);
+        localizedRootResolver = context.registerInjectActivateService(new LocalizedRootResolver());
+    }
+
+    @Test
+    public void testLanguageCopy() {
+        Page root = getPage("/content/navigation-3-language-master/en");
+        Page localizedRoot = localizedRootResolver.getLocalizedRoot(root, getPage("/content/navigation-3-region/us/en/2"));
+        assertEquals("/content/navigation-3-region/us/en", localizedRoot.getPath());
+        localizedRoot = localizedRootResolver.getLocalizedRoot(getPage("/content/navigation-3-language-master/en/1"),
+                getPage("/content/navigation-3-region/us/en/2"));
+        assertEquals("/content/navigation-3-region/us/en/1", localizedRoot.getPath());
+    }
+
+    @Test
+    public void testMissingLanguageCopy() {
+        Page root = getPage("/content/navigation-3-language-master/en/3");
+        assertSame(root, localizedRootResolver.getLocalizedRoot(root, getPage("/content/navigation-3-region/us/en/2")));
+    }
+
+    @Test
+    public void testLiveCopy() {
+        Page root = getPage(BLUEPRINT);
+        assertEquals(LIVE_COPY, localizedRootResolver.getLocalizedRoot(root, getPage(LIVE_COPY + "/2")).getPath());
+        assertSame(root, localizedRootResolver.getLocalizedRoot(root, getPage(BLUEPRINT + "/2")));
+    }
+
+    @Test
+    public void testCachingAndInvalidation() throws Exception {
+        Page root = getPage(BLUEPRINT);
+        Page currentPage = getPage(LIVE_COPY + "/2");
+        assertEquals(LIVE_COPY, localizedRootResolver.getLocalizedRoot(root, currentPage).getPath());
+        // the live copies are cached per root, not per current page
+        assertEquals(LIVE_COPY, localizedRootResolver.getLocalizedRoot(root, getPage(LIVE_COPY + "/1")).getPath());
+        verifyLiveRelationshipsLookups(1);
+
+        // changes to the components or the title of a page don't affect the language or live copy structure
+        localizedRootResolver.onChange(Collections.singletonList(change(LIVE_COPY + "/2/jcr:content/root/text")));
+        localizedRootResolver.onChange(Collections.singletonList(propertyChange(BLUEPRINT + "/jcr:content", "jcr:title")));
+        // pages added to a live copy don't affect the live copy's root
+        localizedRootResolver.onChange(Collections.singletonList(change(LIVE_COPY + "/4")));
+        localizedRootResolver.getLocalizedRoot(root, currentPage);
+        verifyLiveRelationshipsLookups(1);
+
+        // the live copy was moved or removed
+        localizedRootResolver.onChange(Collections.singletonList(change(LIVE_COPY)));
+        assertEquals(LIVE_COPY, localizedRootResolver.getLocalizedRoot(root, currentPage).getPath());
+        verifyLiveRelationshipsLookups(2);
+
+        localizedRootResolver.onChange(Collections.singletonList(propertyChange("/content/jcr:content", "jcr:language")));
+        localizedRootResolver.getLocalizedRoot(root, currentPage);
+        verifyLiveRelationshipsLookups(3);
+
+        localizedRootResolver.onChange(Collections.singletonList(change("/content/other/jcr:content/cq:LiveSyncConfig")));
+        localizedRootResolver.getLocalizedRoot(root, currentPage);
+        verifyLiveRelationshipsLookups(4);
+    }
+
+    private void verifyLiveRelationshipsLookups(int count) throws Exception {
+        verify(relationshipManager, times(count)).getLiveRelationships(any(Resource.class), any(String.class),
+                any(RolloutManager.Trigger.class));
+    }
+
+    private Page getPage(String path) {
+        return context.pageManager().getPage(path);
+    }
+
+    private ResourceChange change(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private ResourceChange propertyChange(String path, String propertyName) {
+        ResourceChange change = change(path);
+        when(change.getChangedPropertyNames()).thenReturn(Collections.singleton(propertyName));
+        return change;
+    }
+}
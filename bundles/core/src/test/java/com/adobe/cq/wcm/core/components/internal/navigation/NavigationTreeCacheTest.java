@@ -0,0 +1,196 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.Page;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NavigationTreeCacheTest {
+
+    private static final String TEST_ROOT = "/content/navigation";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private NavigationTreeCache navigationTreeCache;
+    private Page rootPage;
+
+    @Before
+    public void setUp() {
+        navigationTreeCache = context.registerInjectActivateService(new NavigationTreeCache());
+        rootPage = context.pageManager().getPage(TEST_ROOT);
+    }
+
+    @Test
+    public void testTreeStructure() {
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, -1);
+        assertEquals(-1, tree.getStructureDepth());
+        assertEquals(TEST_ROOT, tree.getRoot().getPath());
+        assertEquals(0, tree.getRoot().getDepth());
+        List<String> paths = new ArrayList<>();
+        collect(paths, tree.getRoot());
+        // the pages hidden in the navigation are left out, together with their subtrees
+        assertEquals(8, paths.size());
+        assertFalse(paths.contains(TEST_ROOT + "/navigation-1/navigation-1-1/navigation-1-1-2/navigation-1-1-2-2"));
+        assertEquals(paths.size(), tree.getNodes().size());
+        NavigationTree.Node navigation11 = tree.getRoot().getChildren().get(0).getChildren().get(0);
+        assertEquals(TEST_ROOT + "/navigation-1/navigation-1-1", navigation11.getPath());
+        assertEquals(2, navigation11.getDepth());
+        assertEquals("Navigation 1.1", navigation11.getTitle());
+        assertSame(tree.getRoot().getChildren().get(0), tree.getParent(navigation11));
+        assertNull(tree.getParent(tree.getRoot()));
+        assertEquals(-1, tree.getRoot().getParentIndex());
+        NavigationTree.Node navigation111 = navigation11.getChildren().get(0);
+        assertEquals(TEST_ROOT + "/navigation-1/navigation-1-1/navigation-1-1-2", navigation111.getRedirectTarget());
+        NavigationTree.Node navigation1123 = navigation11.getChildren().get(1).getChildren().get(1);
+        assertEquals(TEST_ROOT + "/navigation-1/navigation-1-1/navigation-1-1-2/navigation-1-1-2-3", navigation1123.getPath());
+        assertNull(navigation1123.getRedirectTarget());
+        assertEquals(4, navigation1123.getDepth());
+        // nodes are stored in document order
+        for (int i = 0; i < paths.size(); i++) {
+            NavigationTree.Node node = tree.getNodes().get(i);
+            assertEquals(paths.get(i), node.getPath());
+            assertEquals(i, node.getIndex());
+        }
+    }
+
+    @Test
+    public void testFindNode() {
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, -1);
+        assertSame(tree.getRoot(), tree.findNode(TEST_ROOT));
+        String path = TEST_ROOT + "/navigation-1/navigation-1-1/navigation-1-1-2";
+        assertEquals(path, tree.findNode(path).getPath());
+        assertNull(tree.findNode(TEST_ROOT + "/navigation-1/missing"));
+        assertNull(tree.findNode("/content/navigation-livecopy"));
+        assertNull(navigationTreeCache.getTree(rootPage, 1).findNode(path));
+    }
+
+    @Test
+    public void testStructureDepth() {
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, 1);
+        assertEquals(2, tree.getRoot().getChildren().size());
+        for (NavigationTree.Node child : tree.getRoot().getChildren()) {
+            assertTrue(child.getChildren().isEmpty());
+        }
+        assertNotSame(tree, navigationTreeCache.getTree(rootPage, 2));
+    }
+
+    @Test
+    public void testPageValidity() {
+        Calendar offTime = Calendar.getInstance();
+        offTime.setTimeInMillis(1000L);
+        context.create().page(TEST_ROOT + "/navigation-3", null, ImmutableMap.<String, Object>of(NameConstants.PN_OFF_TIME, offTime));
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, 1);
+        NavigationTree.Node expired = tree.getRoot().getChildren().get(2);
+        assertEquals(TEST_ROOT + "/navigation-3", expired.getPath());
+        assertTrue(expired.isValid(999L));
+        assertFalse(expired.isValid(System.currentTimeMillis()));
+        assertTrue(tree.getRoot().isValid(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testTreeIsSharedUntilContentUnderRootChanges() {
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, -1);
+        assertSame(tree, navigationTreeCache.getTree(rootPage, -1));
+
+        navigationTreeCache.onChange(Collections.singletonList(change("/content/navigation-livecopy/jcr:content")));
+        assertSame(tree, navigationTreeCache.getTree(rootPage, -1));
+
+        navigationTreeCache.onChange(Collections.singletonList(change(TEST_ROOT + "/navigation-2/jcr:content")));
+        NavigationTree rebuiltTree = navigationTreeCache.getTree(rootPage, -1);
+        assertNotSame(tree, rebuiltTree);
+
+        navigationTreeCache.onChange(Collections.singletonList(change("/content")));
+        assertNotSame(rebuiltTree, navigationTreeCache.getTree(rootPage, -1));
+    }
+
+    @Test
+    public void testBatchOfChangesInvalidatesAffectedTrees() {
+        Page otherRoot = context.pageManager().getPage("/content/navigation-livecopy");
+        Page unchangedRoot = context.pageManager().getPage("/content/navigation-blueprint");
+        NavigationTree tree = navigationTreeCache.getTree(rootPage, -1);
+        NavigationTree otherTree = navigationTreeCache.getTree(otherRoot, -1);
+        NavigationTree unchangedTree = navigationTreeCache.getTree(unchangedRoot, -1);
+        navigationTreeCache.onChange(Arrays.asList(change(TEST_ROOT + "/navigation-1/jcr:content"),
+                change(TEST_ROOT + "/navigation-2/jcr:content"), change("/content/navigation-livecopy/1")));
+        assertNotSame(tree, navigationTreeCache.getTree(rootPage, -1));
+        assertNotSame(otherTree, navigationTreeCache.getTree(otherRoot, -1));
+        assertSame(unchangedTree, navigationTreeCache.getTree(unchangedRoot, -1));
+    }
+
+    @Test
+    public void testSequentialBuildWithoutParallelismThreshold() {
+        NavigationTreeCache sequentialCache = new NavigationTreeCache();
+        sequentialCache.activate(new NavigationTreeCache.Config() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return null;
+            }
+
+            @Override
+            public int parallelismThreshold() {
+                return 0;
+            }
+
+            @Override
+            public int parallelism() {
+                return 0;
+            }
+        });
+        NavigationTree tree = sequentialCache.getTree(rootPage, -1);
+        assertEquals(navigationTreeCache.getTree(rootPage, -1).getNodes().size(), tree.getNodes().size());
+        assertSame(tree, sequentialCache.getTree(rootPage, -1));
+        sequentialCache.deactivate();
+        assertNotSame(tree, sequentialCache.getTree(rootPage, -1));
+    }
+
+    private ResourceChange change(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private void collect(List<String> paths, NavigationTree.Node node) {
+        paths.add(node.getPath());
+        for (NavigationTree.Node child : node.getChildren()) {
+            collect(paths, child);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.adobe.cq.wcm.core.components.models.NavigationItem;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NavigationTreeOverlayTest {
+
+    private static final String TEST_ROOT = "/content/navigation";
+    private static final String CURRENT_PAGE = TEST_ROOT + "/navigation-1/navigation-1-1";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private PageManager pageManager;
+    private NavigationTreeOverlay overlay;
+
+    @Before
+    public void setUp() {
+        pageManager = spy(context.pageManager());
+        Page currentPage = mock(Page.class);
+        when(currentPage.getPath()).thenReturn(CURRENT_PAGE);
+        when(currentPage.getPageManager()).thenReturn(pageManager);
+        overlay = new NavigationTreeOverlay(context.request(), currentPage, 0, null);
+    }
+
+    @Test
+    public void testItemsAreReadFromTreeNodes() {
+        List<NavigationItem> items = overlay.getItems(getTree().getRoot());
+        assertEquals(2, items.size());
+        NavigationItem navigation1 = items.get(0);
+        assertEquals(TEST_ROOT + "/navigation-1", navigation1.getPath());
+        assertEquals("/navigation-1-vanity", navigation1.getURL());
+        assertEquals("Navigation 1", navigation1.getTitle());
+        assertEquals(1, navigation1.getLevel());
+        assertTrue(navigation1.isActive());
+        NavigationItem navigation11 = navigation1.getChildren().get(0);
+        assertEquals(CURRENT_PAGE + ".html", navigation11.getURL());
+        assertTrue(navigation11.isActive());
+        assertFalse(items.get(1).isActive());
+        verify(pageManager, never()).getPage(anyString());
+
+        assertEquals(TEST_ROOT + "/navigation-1", navigation1.getPage().getPath());
+        assertNull(navigation1.getDescription());
+        verify(pageManager, times(1)).getPage(anyString());
+    }
+
+    @Test
+    public void testRedirectingPagesAreResolved() {
+        context.create().page(TEST_ROOT + "/navigation-3", null,
+                ImmutableMap.<String, Object>of(PageImpl.PN_REDIRECT_TARGET, TEST_ROOT + "/navigation-2"));
+        NavigationItem item = overlay.getItems(getTree().getRoot()).get(2);
+        assertEquals(TEST_ROOT + "/navigation-2", item.getPath());
+        assertEquals(TEST_ROOT + "/navigation-2.html", item.getURL());
+        assertEquals("Navigation 2", item.getTitle());
+        assertEquals(TEST_ROOT + "/navigation-2", item.getPage().getPath());
+        verify(pageManager, times(1)).getPage(TEST_ROOT + "/navigation-3");
+    }
+
+    @Test
+    public void testRemovedPagesKeepTheirTreeData() throws PersistenceException {
+        NavigationTree tree = getTree();
+        context.resourceResolver().delete(context.resourceResolver().getResource(TEST_ROOT + "/navigation-2"));
+        NavigationItem item = overlay.getItems(tree.getRoot()).get(1);
+        assertEquals(TEST_ROOT + "/navigation-2", item.getPath());
+        assertEquals("Navigation 2", item.getTitle());
+        assertNull(item.getPage());
+        assertNull(item.getDescription());
+        assertNull(item.getLastModified());
+    }
+
+    private NavigationTree getTree() {
+        return NavigationTree.build(context.pageManager().getPage(TEST_ROOT), -1);
+    }
+}
@@ -0,0 +1,93 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelNavigationTreeBuilderTest {
+
+    private static final String TEST_ROOT = "/content/navigation";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testParallelTreeMatchesSequentialTree() {
+        Page rootPage = context.pageManager().getPage(TEST_ROOT);
+        ParallelNavigationTreeBuilder builder = new ParallelNavigationTreeBuilder(pool, 1);
+        assertTreesEqual(NavigationTree.build(rootPage, -1), builder.build(rootPage, -1));
+        assertTreesEqual(NavigationTree.build(rootPage, 2), builder.build(rootPage, 2));
+        assertTreesEqual(NavigationTree.build(rootPage, 0), builder.build(rootPage, 0));
+    }
+
+    @Test
+    public void testSequentialBelowThreshold() {
+        Page rootPage = context.pageManager().getPage(TEST_ROOT);
+        ParallelNavigationTreeBuilder builder = new ParallelNavigationTreeBuilder(pool, 100);
+        assertTreesEqual(NavigationTree.build(rootPage, -1), builder.build(rootPage, -1));
+    }
+
+    @Test
+    public void testRejectedWalksAreRunByCurrentThread() {
+        Page rootPage = context.pageManager().getPage(TEST_ROOT);
+        pool.shutdown();
+        ParallelNavigationTreeBuilder builder = new ParallelNavigationTreeBuilder(pool, 1);
+        assertTreesEqual(NavigationTree.build(rootPage, -1), builder.build(rootPage, -1));
+    }
+
+    private void assertTreesEqual(NavigationTree expected, NavigationTree actual) {
+        assertEquals(expected.getStructureDepth(), actual.getStructureDepth());
+        List<NavigationTree.Node> expectedNodes = expected.getNodes();
+        List<NavigationTree.Node> actualNodes = actual.getNodes();
+        assertEquals(expectedNodes.size(), actualNodes.size());
+        for (int i = 0; i < expectedNodes.size(); i++) {
+            NavigationTree.Node expectedNode = expectedNodes.get(i);
+            NavigationTree.Node actualNode = actualNodes.get(i);
+            assertEquals(expectedNode.getPath(), actualNode.getPath());
+            assertEquals(i, actualNode.getIndex());
+            assertEquals(expectedNode.getParentIndex(), actualNode.getParentIndex());
+            assertEquals(expectedNode.getDepth(), actualNode.getDepth());
+            assertEquals(expectedNode.getTitle(), actualNode.getTitle());
+            assertEquals(expectedNode.getVanityUrl(), actualNode.getVanityUrl());
+            assertEquals(expectedNode.getRedirectTarget(), actualNode.getRedirectTarget());
+            assertEquals(expectedNode.getChildren().size(), actualNode.getChildren().size());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.navigation;
+
+import java.util.Collections;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.models.v2.PageImpl;
+import com.day.cq.wcm.api.Page;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RedirectChainCacheTest {
+
+    private static final String TEST_ROOT = "/content/navigation";
+    private static final String REDIRECTING_ROOT = "/content/navigation-redirect";
+    private static final String PAGE_1_1 = TEST_ROOT + "/navigation-1/navigation-1-1";
+    private static final String PAGE_1_1_1 = PAGE_1_1 + "/navigation-1-1-1";
+    private static final String MISSING_PAGE = "/content/missing";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private RedirectChainCache redirectChainCache;
+
+    @Before
+    public void setUp() {
+        redirectChainCache = context.registerInjectActivateService(new RedirectChainCache());
+    }
+
+    @Test
+    public void testRedirectTarget() {
+        assertEquals(TEST_ROOT, getRedirectTarget(REDIRECTING_ROOT).getPath());
+        Page page = context.pageManager().getPage(PAGE_1_1);
+        assertSame(page, redirectChainCache.getRedirectTarget(page));
+        // the chain of navigation-1-1-1 loops back to itself
+        assertEquals(PAGE_1_1_1, getRedirectTarget(PAGE_1_1_1).getPath());
+        assertEquals(PAGE_1_1_1, RedirectChainCache.resolveRedirectTarget(context.pageManager().getPage(PAGE_1_1_1)).getPath());
+    }
+
+    @Test
+    public void testChangedRedirectTarget() throws PersistenceException {
+        assertEquals(TEST_ROOT, getRedirectTarget(REDIRECTING_ROOT).getPath());
+        context.resourceResolver().getResource(REDIRECTING_ROOT + "/jcr:content").adaptTo(ModifiableValueMap.class)
+                .put(PageImpl.PN_REDIRECT_TARGET, PAGE_1_1);
+        context.resourceResolver().commit();
+        // the cache wasn't notified yet
+        assertEquals(TEST_ROOT, getRedirectTarget(REDIRECTING_ROOT).getPath());
+        redirectChainCache.onChange(Collections.singletonList(getChange(TEST_ROOT + "/navigation-1")));
+        assertEquals(TEST_ROOT, getRedirectTarget(REDIRECTING_ROOT).getPath());
+        redirectChainCache.onChange(Collections.singletonList(getChange(REDIRECTING_ROOT + "/jcr:content")));
+        assertEquals(PAGE_1_1, getRedirectTarget(REDIRECTING_ROOT).getPath());
+    }
+
+    @Test
+    public void testMissingRedirectTarget() {
+        String redirectingPage = TEST_ROOT + "/redirect-to-missing";
+        context.create().page(redirectingPage, null, ImmutableMap.<String, Object>of(PageImpl.PN_REDIRECT_TARGET, MISSING_PAGE));
+        assertNull(getRedirectTarget(redirectingPage));
+        context.create().page(MISSING_PAGE);
+        assertNull(getRedirectTarget(redirectingPage));
+        redirectChainCache.onChange(Collections.singletonList(getChange(MISSING_PAGE)));
+        Page target = getRedirectTarget(redirectingPage);
+        assertNotNull(target);
+        assertEquals(MISSING_PAGE, target.getPath());
+    }
+
+    private Page getRedirectTarget(String path) {
+        return redirectChainCache.getRedirectTarget(context.pageManager().getPage(path));
+    }
+
+    private ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
@@ -0,0 +1,148 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.Page;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PageTitleIndexTest {
+
+    private static final String SEARCH_ROOT = "/content/en/search";
+    private static final String PAGE = SEARCH_ROOT + "/page";
+    private static final String PAGE_TEMPLATE = SEARCH_ROOT + "/page-template";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/search", "/content");
+
+    private PageTitleIndex pageTitleIndex;
+    private Page searchRoot;
+
+    @Before
+    public void setUp() {
+        pageTitleIndex = context.registerInjectActivateService(new PageTitleIndex());
+        searchRoot = context.pageManager().getPage(SEARCH_ROOT);
+    }
+
+    @Test
+    public void testPrefixSuggestions() {
+        assertEquals(Arrays.asList(PAGE, PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "Pa", 10));
+        assertEquals(Collections.singletonList(PAGE), pageTitleIndex.getSuggestions(searchRoot, "page", 1));
+        assertTrue(pageTitleIndex.getSuggestions(searchRoot, "pages", 10).isEmpty());
+        assertTrue(pageTitleIndex.getSuggestions(searchRoot, "search", 10).isEmpty());
+        assertTrue(pageTitleIndex.getSuggestions(searchRoot, " - ", 10).isEmpty());
+        assertTrue(pageTitleIndex.getSuggestions(searchRoot, "page", 0).isEmpty());
+    }
+
+    @Test
+    public void testMostRecentPagesAreSuggestedFirst() {
+        createPage(SEARCH_ROOT + "/news", "Latest News", "Paging", 2018);
+        createPage(SEARCH_ROOT + "/archive", "News Archive", null, 2016);
+        assertEquals(Arrays.asList(SEARCH_ROOT + "/news", PAGE, PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "pag", 10));
+        assertEquals(Arrays.asList(SEARCH_ROOT + "/news", SEARCH_ROOT + "/archive"),
+                pageTitleIndex.getSuggestions(searchRoot, "news", 10));
+        assertEquals(Collections.singletonList(SEARCH_ROOT + "/archive"), pageTitleIndex.getSuggestions(searchRoot, "ne arch", 10));
+    }
+
+    @Test
+    public void testChangedPagesAreReindexed() throws PersistenceException {
+        assertEquals(Arrays.asList(PAGE, PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "page", 10));
+
+        Resource content = context.resourceResolver().getResource(PAGE + "/jcr:content");
+        content.adaptTo(ModifiableValueMap.class).put("jcr:title", "Welcome");
+        context.resourceResolver().commit();
+        pageTitleIndex.onChange(Collections.singletonList(getChange(PAGE + "/jcr:content")));
+        assertEquals(Collections.singletonList(PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "page", 10));
+        assertEquals(Collections.singletonList(PAGE), pageTitleIndex.getSuggestions(searchRoot, "welc", 10));
+
+        createPage(PAGE + "/child", "Welcome Child", null, 2018);
+        pageTitleIndex.onChange(Collections.singletonList(getChange(PAGE + "/child")));
+        assertEquals(Arrays.asList(PAGE + "/child", PAGE), pageTitleIndex.getSuggestions(searchRoot, "welc", 10));
+
+        context.resourceResolver().delete(context.resourceResolver().getResource(PAGE));
+        context.resourceResolver().commit();
+        pageTitleIndex.onChange(Collections.singletonList(getChange(PAGE)));
+        assertTrue(pageTitleIndex.getSuggestions(searchRoot, "welc", 10).isEmpty());
+
+        pageTitleIndex.onChange(Collections.singletonList(getChange("/content/de/search/page")));
+        assertEquals(Collections.singletonList(PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "page", 10));
+    }
+
+    @Test
+    public void testChangesAboveRootRebuildIndex() throws PersistenceException {
+        assertEquals(Arrays.asList(PAGE, PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "page", 10));
+        createPage(SEARCH_ROOT + "/paging", "Paging", null, 2017);
+        // without a change event, the index isn't updated
+        assertEquals(Arrays.asList(PAGE, PAGE_TEMPLATE), pageTitleIndex.getSuggestions(searchRoot, "pag", 10));
+        pageTitleIndex.onChange(Collections.singletonList(getChange("/content/en")));
+        assertEquals(Arrays.asList(PAGE, PAGE_TEMPLATE, SEARCH_ROOT + "/paging"), pageTitleIndex.getSuggestions(searchRoot, "pag", 10));
+    }
+
+    @Test
+    public void testMostRecentSuggestionsAreKeptWhenPagesAreRemoved() throws PersistenceException {
+        for (int i = 0; i < 60; i++) {
+            createPage(SEARCH_ROOT + "/item-" + i, "Item " + i, null, 1950 + i);
+        }
+        List<String> suggestions = pageTitleIndex.getSuggestions(searchRoot, "it", 100);
+        assertEquals(50, suggestions.size());
+        assertEquals(SEARCH_ROOT + "/item-59", suggestions.get(0));
+        assertEquals(SEARCH_ROOT + "/item-10", suggestions.get(49));
+
+        context.resourceResolver().delete(context.resourceResolver().getResource(SEARCH_ROOT + "/item-59"));
+        context.resourceResolver().commit();
+        pageTitleIndex.onChange(Collections.singletonList(getChange(SEARCH_ROOT + "/item-59")));
+        suggestions = pageTitleIndex.getSuggestions(searchRoot, "item", 100);
+        assertEquals(50, suggestions.size());
+        assertEquals(SEARCH_ROOT + "/item-58", suggestions.get(0));
+        assertEquals(SEARCH_ROOT + "/item-9", suggestions.get(49));
+        assertEquals(Collections.singletonList(SEARCH_ROOT + "/item-9"), pageTitleIndex.getSuggestions(searchRoot, "item 9", 10));
+    }
+
+    private void createPage(String path, String title, String navigationTitle, int year) {
+        Calendar lastModified = new GregorianCalendar(year, Calendar.JANUARY, 1);
+        context.create().page(path, null, navigationTitle != null ?
+                ImmutableMap.<String, Object>of("jcr:title", title, NameConstants.PN_NAV_TITLE, navigationTitle,
+                        NameConstants.PN_PAGE_LAST_MOD, lastModified) :
+                ImmutableMap.<String, Object>of("jcr:title", title, NameConstants.PN_PAGE_LAST_MOD, lastModified));
+    }
+
+    private static ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
@@ -0,0 +1,117 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchConfigurationCacheTest {
+
+    private static final String COMPONENT = "/content/en/search/page/jcr:content/search";
+    private static final String TEMPLATE_COMPONENT = "/conf/test/settings/wcm/templates/page/structure/jcr:content/search";
+
+    private SearchConfigurationCache searchConfigurationCache;
+    private AtomicInteger resolutions;
+
+    @Before
+    public void setUp() {
+        searchConfigurationCache = new SearchConfigurationCache();
+        resolutions = new AtomicInteger();
+    }
+
+    @Test
+    public void testConfigurationIsCached() {
+        SearchConfigurationCache.Configuration configuration = getConfiguration(new SearchConfigurationCache.Key(COMPONENT, "user"));
+        assertEquals("/content/en", configuration.getSearchRoot());
+        assertEquals(10, configuration.getResultsSize());
+        assertEquals(3, configuration.getSearchTermMinimumLength());
+        getConfiguration(new SearchConfigurationCache.Key(COMPONENT, "user"));
+        assertEquals(1, resolutions.get());
+        getConfiguration(new SearchConfigurationCache.Key(TEMPLATE_COMPONENT, "user"));
+        getConfiguration(new SearchConfigurationCache.Key(COMPONENT, null));
+        assertEquals(3, resolutions.get());
+    }
+
+    @Test
+    public void testContentChangesEvictTheirBranch() {
+        SearchConfigurationCache.Key key = new SearchConfigurationCache.Key(COMPONENT, "user");
+        SearchConfigurationCache.Key templateKey = new SearchConfigurationCache.Key(TEMPLATE_COMPONENT, "user");
+        getConfiguration(key);
+        getConfiguration(templateKey);
+        String[] unrelatedChanges = new String[]{
+                "/content/en/other/jcr:content/search",
+                "/content/en/search/page/jcr:content/title",
+                "/content/de",
+                "/content/en/search/page/jcr:content/cq:LiveSyncConfig"
+        };
+        for (String change : unrelatedChanges) {
+            searchConfigurationCache.onChange(Collections.singletonList(getChange(change)));
+        }
+        getConfiguration(key);
+        getConfiguration(templateKey);
+        assertEquals(2, resolutions.get());
+
+        searchConfigurationCache.onChange(Collections.singletonList(getChange(COMPONENT)));
+        getConfiguration(key);
+        getConfiguration(templateKey);
+        assertEquals(3, resolutions.get());
+        searchConfigurationCache.onChange(Collections.singletonList(getChange("/content/en/search")));
+        getConfiguration(key);
+        assertEquals(4, resolutions.get());
+    }
+
+    @Test
+    public void testConfigurationChangesEvictAllConfigurations() {
+        SearchConfigurationCache.Key key = new SearchConfigurationCache.Key(COMPONENT, "user");
+        getConfiguration(key);
+        searchConfigurationCache.onChange(Collections.singletonList(getChange("/conf/test/settings/wcm/policies/search")));
+        getConfiguration(key);
+        assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    public void testConfigurationsResolvedDuringChangesAreNotCached() {
+        SearchConfigurationCache.Key key = new SearchConfigurationCache.Key(COMPONENT, "user");
+        searchConfigurationCache.getConfiguration(key, () -> {
+            resolutions.incrementAndGet();
+            searchConfigurationCache.onChange(Collections.singletonList(getChange("/conf/test")));
+            return new SearchConfigurationCache.Configuration("/content/en", 10, 3);
+        });
+        getConfiguration(key);
+        assertEquals(2, resolutions.get());
+    }
+
+    private SearchConfigurationCache.Configuration getConfiguration(SearchConfigurationCache.Key key) {
+        return searchConfigurationCache.getConfiguration(key, () -> {
+            resolutions.incrementAndGet();
+            return new SearchConfigurationCache.Configuration("/content/en", 10, 3);
+        });
+    }
+
+    private static ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+}
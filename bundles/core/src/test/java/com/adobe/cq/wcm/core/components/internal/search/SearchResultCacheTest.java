@@ -0,0 +1,146 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.search;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchResultCacheTest {
+
+    private static final String SEARCH_ROOT = "/content/en";
+    private static final List<String> HITS = Collections.singletonList(SEARCH_ROOT + "/page");
+
+    private SearchResultCache searchResultCache;
+    private AtomicInteger searches;
+    private long time;
+
+    @Before
+    public void setUp() {
+        searchResultCache = new SearchResultCache();
+        searchResultCache.activate(getConfig(SearchResultCache.DEFAULT_TIME_TO_LIVE));
+        searchResultCache.clock = () -> time;
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    public void testResultIsCached() {
+        assertEquals(HITS, getHitPaths(new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, "user")));
+        assertEquals(HITS, getHitPaths(new SearchResultCache.Key(" yod  ", SEARCH_ROOT, 0, 10, "user")));
+        assertEquals(1, searches.get());
+        // the OR operator is not the word "or"
+        getHitPaths(new SearchResultCache.Key("yoda OR luke", SEARCH_ROOT, 0, 10, "user"));
+        getHitPaths(new SearchResultCache.Key("yoda or luke", SEARCH_ROOT, 0, 10, "user"));
+        assertEquals(3, searches.get());
+        getHitPaths(new SearchResultCache.Key("yoda", SEARCH_ROOT, 0, 10, "user"));
+        getHitPaths(new SearchResultCache.Key("yod", "/content/de", 0, 10, "user"));
+        getHitPaths(new SearchResultCache.Key("yod", SEARCH_ROOT, 10, 10, "user"));
+        getHitPaths(new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 20, "user"));
+        getHitPaths(new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, null));
+        assertEquals(8, searches.get());
+    }
+
+    @Test
+    public void testResultExpires() {
+        SearchResultCache.Key key = new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, "user");
+        getHitPaths(key);
+        time += 59999;
+        getHitPaths(key);
+        assertEquals(1, searches.get());
+        time += 1;
+        getHitPaths(key);
+        getHitPaths(key);
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    public void testChangesUnderSearchRootEvictResults() {
+        SearchResultCache.Key key = new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, "user");
+        getHitPaths(key);
+        searchResultCache.onChange(Collections.singletonList(getChange("/content/de/page")));
+        getHitPaths(key);
+        assertEquals(1, searches.get());
+        searchResultCache.onChange(Collections.singletonList(getChange(SEARCH_ROOT + "/page/jcr:content")));
+        getHitPaths(key);
+        assertEquals(2, searches.get());
+        searchResultCache.onChange(Collections.singletonList(getChange("/content")));
+        getHitPaths(key);
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    public void testResultsFoundDuringChangesAreNotCached() {
+        SearchResultCache.Key key = new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, "user");
+        searchResultCache.getHitPaths(key, () -> {
+            searches.incrementAndGet();
+            searchResultCache.onChange(Collections.singletonList(getChange("/content/de")));
+            return HITS;
+        });
+        getHitPaths(key);
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() {
+        searchResultCache.activate(getConfig(0));
+        SearchResultCache.Key key = new SearchResultCache.Key("yod", SEARCH_ROOT, 0, 10, "user");
+        getHitPaths(key);
+        getHitPaths(key);
+        assertEquals(2, searches.get());
+        searchResultCache.deactivate();
+    }
+
+    private List<String> getHitPaths(SearchResultCache.Key key) {
+        return searchResultCache.getHitPaths(key, () -> {
+            searches.incrementAndGet();
+            return HITS;
+        });
+    }
+
+    private static ResourceChange getChange(String path) {
+        ResourceChange change = mock(ResourceChange.class);
+        when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private static SearchResultCache.Config getConfig(long timeToLive) {
+        return new SearchResultCache.Config() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return null;
+            }
+
+            @Override
+            public long timeToLive() {
+                return timeToLive;
+            }
+
+            @Override
+            public int maxSize() {
+                return SearchResultCache.DEFAULT_MAX_SIZE;
+            }
+        };
+    }
+}
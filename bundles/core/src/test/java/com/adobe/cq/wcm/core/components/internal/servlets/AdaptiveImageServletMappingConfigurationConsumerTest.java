@@ -60,6 +60,7 @@ public class AdaptiveImageServletMappingConfigurationConsumerTest {
     public void setUp() {
         AssetStore assetStore = mock(AssetStore.class);
         slingContext.registerService(AssetStore.class, assetStore);
+        slingContext.registerInjectActivateService(new ImagePlaceholderRenderer());
     }
 
     @Test
@@ -137,6 +138,7 @@ public class AdaptiveImageServletMappingConfigurationConsumerTest {
         Servlet ais = slingContext.bundleContext().getService(servletReference);
         assertTrue(ais instanceof AdaptiveImageServlet);
         assertTrue(Whitebox.getInternalState(ais, "defaultResizeWidth").equals(AdaptiveImageServlet.DEFAULT_RESIZE_WIDTH));
+        assertNotNull(Whitebox.getInternalState(ais, "placeholderRenderer"));
 
         registration1.unregister();
         testServiceRegistrations(1, configurationConsumer);
@@ -66,6 +66,7 @@ public class AdaptiveImageServletTest extends AbstractImageTest {
     private static String TEST_BASE = "/image";
 
     private AdaptiveImageServlet servlet;
+    private AssetStore assetStore;
     private static final int ADAPTIVE_IMAGE_SERVLET_DEFAULT_RESIZE_WIDTH = 1280;
 
     @BeforeClass
@@ -77,7 +78,7 @@ public class AdaptiveImageServletTest extends AbstractImageTest {
     public void init() throws IOException {
         resourceResolver = CONTEXT.resourceResolver();
         AssetHandler assetHandler = mock(AssetHandler.class);
-        AssetStore assetStore = mock(AssetStore.class);
+        assetStore = mock(AssetStore.class);
         when(assetStore.getAssetHandler(anyString())).thenReturn(assetHandler);
         when(assetHandler.getImage(any(Rendition.class))).thenAnswer(invocation -> {
             Rendition rendition = invocation.getArgumentAt(0, Rendition.class);
@@ -535,6 +536,45 @@ public class AdaptiveImageServletTest extends AbstractImageTest {
 
     }
 
+    @Test
+    public void testPlaceholderRequest() throws IOException {
+        CONTEXT.registerService(AssetStore.class, assetStore);
+        ImagePlaceholderRenderer placeholderRenderer = CONTEXT.registerInjectActivateService(new ImagePlaceholderRenderer());
+        servlet = new AdaptiveImageServlet(mockedMimeTypeService, assetStore, ADAPTIVE_IMAGE_SERVLET_DEFAULT_RESIZE_WIDTH,
+                placeholderRenderer);
+        Pair<MockSlingHttpServletRequest, MockSlingHttpServletResponse> requestResponsePair =
+                prepareRequestResponsePair(IMAGE0_PATH, "coreimg." + AdaptiveImageServlet.LQIP_SELECTOR, "jpeg");
+        MockSlingHttpServletRequest request = requestResponsePair.getLeft();
+        MockSlingHttpServletResponse response = requestResponsePair.getRight();
+        servlet.doGet(request, response);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(response.getOutput()));
+        assertEquals("Expected a placeholder image.", ImagePlaceholderRenderer.PLACEHOLDER_WIDTH, image.getWidth());
+        assertEquals("Expected a JPEG image.", "image/jpeg", response.getContentType());
+    }
+
+    @Test
+    public void testPlaceholderRequestWithUnsupportedExtension() throws IOException {
+        CONTEXT.registerService(AssetStore.class, assetStore);
+        ImagePlaceholderRenderer placeholderRenderer = CONTEXT.registerInjectActivateService(new ImagePlaceholderRenderer());
+        servlet = new AdaptiveImageServlet(mockedMimeTypeService, assetStore, ADAPTIVE_IMAGE_SERVLET_DEFAULT_RESIZE_WIDTH,
+                placeholderRenderer);
+        Pair<MockSlingHttpServletRequest, MockSlingHttpServletResponse> requestResponsePair =
+                prepareRequestResponsePair(IMAGE0_PATH, "coreimg." + AdaptiveImageServlet.LQIP_SELECTOR, "png");
+        MockSlingHttpServletResponse response = requestResponsePair.getRight();
+        servlet.doGet(requestResponsePair.getLeft(), response);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+    }
+
+    @Test
+    public void testPlaceholderRequestWithoutRenderer() throws IOException {
+        Pair<MockSlingHttpServletRequest, MockSlingHttpServletResponse> requestResponsePair =
+                prepareRequestResponsePair(IMAGE0_PATH, "coreimg." + AdaptiveImageServlet.LQIP_SELECTOR, "jpeg");
+        MockSlingHttpServletResponse response = requestResponsePair.getRight();
+        servlet.doGet(requestResponsePair.getLeft(), response);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        assertArrayEquals("Expected an empty response output.", new byte[0], response.getOutput());
+    }
+
     private void testNegativeRequestedWidth(String imagePath) throws IOException {
         Pair<MockSlingHttpServletRequest, MockSlingHttpServletResponse> requestResponsePair =
                 prepareRequestResponsePair(imagePath, "img.-1", "png");
@@ -0,0 +1,97 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.awt.Dimension;
+
+import org.apache.sling.api.resource.Resource;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.internal.AssetLookup;
+import com.adobe.cq.wcm.core.components.internal.models.v1.AbstractImageTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ImageDimensionsProviderTest extends AbstractImageTest {
+
+    private static final String TEST_BASE = "/image";
+    private static final long LAST_MODIFIED = 1490005239000L;
+
+    private ImageDimensionsProvider dimensionsProvider;
+    private AssetLookup assetLookup;
+
+    @BeforeClass
+    public static void setUp() {
+        internalSetUp(CONTEXT, TEST_BASE);
+    }
+
+    @Before
+    public void init() {
+        resourceResolver = CONTEXT.resourceResolver();
+        dimensionsProvider = new ImageDimensionsProvider();
+        assetLookup = AssetLookup.get(CONTEXT.request());
+    }
+
+    @Test
+    public void testAssetDimensions() {
+        assertEquals(new Dimension(2000, 2000), getDimensions(IMAGE0_PATH));
+        assertEquals(new Dimension(2000, 2000), getDimensions(IMAGE16_PATH));
+    }
+
+    @Test
+    public void testFileDimensions() {
+        assertEquals(new Dimension(2000, 2000), getDimensions(IMAGE3_PATH));
+    }
+
+    @Test
+    public void testCroppedAndRotatedAssetDimensions() {
+        // the cropping rectangle is relative to the 1280px web rendition of the 2000px asset
+        assertEquals(new Dimension(515, 1390), getDimensions(IMAGE18_PATH));
+    }
+
+    @Test
+    public void testCroppedAndRotatedFileDimensions() {
+        assertEquals(new Dimension(515, 1390), getDimensions(IMAGE14_PATH));
+    }
+
+    @Test
+    public void testImageWithoutBinary() {
+        assertNull(getDimensions(IMAGE2_PATH));
+    }
+
+    @Test
+    public void testDimensionsAreCachedPerLastModifiedDate() {
+        Resource image = spy(resourceResolver.getResource(IMAGE3_PATH));
+        Dimension dimension = dimensionsProvider.getDimensions(image, assetLookup, LAST_MODIFIED);
+        Dimension cachedDimension = dimensionsProvider.getDimensions(image, assetLookup, LAST_MODIFIED);
+        assertEquals(dimension, cachedDimension);
+        assertNotSame("Expected a defensive copy of the cached dimensions.", dimension, cachedDimension);
+        verify(image, times(1)).getValueMap();
+        dimensionsProvider.getDimensions(image, assetLookup, LAST_MODIFIED + 1);
+        verify(image, times(2)).getValueMap();
+    }
+
+    private Dimension getDimensions(String imagePath) {
+        return dimensionsProvider.getDimensions(resourceResolver.getResource(imagePath), assetLookup, LAST_MODIFIED);
+    }
+}
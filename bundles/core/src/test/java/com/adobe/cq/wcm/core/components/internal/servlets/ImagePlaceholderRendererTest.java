@@ -0,0 +1,106 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.internal.models.v1.AbstractImageTest;
+import com.day.cq.dam.api.Rendition;
+import com.day.cq.dam.api.handler.AssetHandler;
+import com.day.cq.dam.api.handler.store.AssetStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ImagePlaceholderRendererTest extends AbstractImageTest {
+
+    private static final String TEST_BASE = "/image";
+    private static final long LAST_MODIFIED = 1490005239000L;
+
+    private ImagePlaceholderRenderer placeholderRenderer;
+
+    @BeforeClass
+    public static void setUp() {
+        internalSetUp(CONTEXT, TEST_BASE);
+    }
+
+    @Before
+    public void init() throws IOException {
+        resourceResolver = CONTEXT.resourceResolver();
+        AssetHandler assetHandler = mock(AssetHandler.class);
+        AssetStore assetStore = mock(AssetStore.class);
+        when(assetStore.getAssetHandler(anyString())).thenReturn(assetHandler);
+        when(assetHandler.getImage(any(Rendition.class))).thenAnswer(invocation -> {
+            Rendition rendition = invocation.getArgumentAt(0, Rendition.class);
+            return ImageIO.read(rendition.getStream());
+        });
+        CONTEXT.registerService(AssetStore.class, assetStore);
+        placeholderRenderer = CONTEXT.registerInjectActivateService(new ImagePlaceholderRenderer());
+    }
+
+    @Test
+    public void testAssetPlaceholder() throws IOException {
+        byte[] placeholder = placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE0_PATH), LAST_MODIFIED);
+        assertNotNull(placeholder);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(placeholder));
+        assertEquals(ImagePlaceholderRenderer.PLACEHOLDER_WIDTH, image.getWidth());
+    }
+
+    @Test
+    public void testCroppedAndRotatedFilePlaceholder() throws IOException {
+        byte[] placeholder = placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE14_PATH), LAST_MODIFIED);
+        assertNotNull(placeholder);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(placeholder));
+        assertEquals(ImagePlaceholderRenderer.PLACEHOLDER_WIDTH, image.getWidth());
+        assertTrue("Expected the rotated crop to be portrait oriented.", image.getHeight() > image.getWidth());
+    }
+
+    @Test
+    public void testPlaceholderIsCachedPerLastModifiedDate() {
+        byte[] placeholder = placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE3_PATH), LAST_MODIFIED);
+        assertSame(placeholder, placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE3_PATH), LAST_MODIFIED));
+        assertNotSame(placeholder, placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE3_PATH), LAST_MODIFIED + 1));
+    }
+
+    @Test
+    public void testPlaceholderDataUri() {
+        String dataUri = placeholderRenderer.getPlaceholderDataUri(resourceResolver.getResource(IMAGE3_PATH), LAST_MODIFIED);
+        assertNotNull(dataUri);
+        assertTrue(dataUri.startsWith("data:image/jpeg;base64,"));
+    }
+
+    @Test
+    public void testImageWithoutBinary() {
+        assertNull(placeholderRenderer.getPlaceholder(resourceResolver.getResource(IMAGE2_PATH), LAST_MODIFIED));
+        assertNull(placeholderRenderer.getPlaceholderDataUri(resourceResolver.getResource(IMAGE2_PATH), LAST_MODIFIED));
+    }
+}
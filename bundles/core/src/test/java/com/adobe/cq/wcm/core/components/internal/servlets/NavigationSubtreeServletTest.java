@@ -0,0 +1,130 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.servlets;
+
+import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTree;
+import com.adobe.cq.wcm.core.components.internal.navigation.NavigationTreeCache;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationSubtreeServletTest {
+
+    private static final String TEST_ROOT = "/content/navigation";
+    private static final String CURRENT_PAGE = TEST_ROOT + "/navigation-1/navigation-1-1";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext("/navigation", "/content");
+
+    private NavigationTreeCache navigationTreeCache;
+    private NavigationSubtreeServlet underTest;
+
+    @Before
+    public void setUp() {
+        navigationTreeCache = context.registerInjectActivateService(new NavigationTreeCache());
+        context.registerInjectActivateService(new RedirectChainCache());
+        underTest = context.registerInjectActivateService(new NavigationSubtreeServlet());
+        context.currentResource(CURRENT_PAGE);
+    }
+
+    @Test
+    public void testSubtree() throws IOException {
+        JsonNode item = getSubtree(TEST_ROOT + "/navigation-1", "1");
+        assertEquals(TEST_ROOT + "/navigation-1", item.get("path").asText());
+        assertEquals(0, item.get("level").asInt());
+        assertTrue(item.get("active").asBoolean());
+        JsonNode children = item.get("children");
+        assertEquals(1, children.size());
+        assertEquals(CURRENT_PAGE, children.get(0).get("path").asText());
+        assertEquals(1, children.get(0).get("level").asInt());
+        assertTrue(children.get(0).get("active").asBoolean());
+        assertEquals(0, children.get(0).get("children").size());
+    }
+
+    @Test
+    public void testSubtreeDepth() throws IOException {
+        JsonNode item = getSubtree(TEST_ROOT + "/navigation-1", "2");
+        JsonNode grandChildren = item.get("children").get(0).get("children");
+        assertEquals(2, grandChildren.size());
+        assertEquals(2, grandChildren.get(0).get("level").asInt());
+        assertEquals(0, grandChildren.get(0).get("children").size());
+    }
+
+    @Test
+    public void testDefaultAndMaximumDepth() throws IOException {
+        JsonNode item = getSubtree(TEST_ROOT, null);
+        assertEquals(2, item.get("children").size());
+        assertEquals(0, item.get("children").get(0).get("children").size());
+
+        item = getSubtree(TEST_ROOT, "100");
+        assertEquals(TEST_ROOT, item.get("path").asText());
+    }
+
+    @Test
+    public void testSubtreesShareTheSiteTree() throws IOException {
+        NavigationTree siteTree = navigationTreeCache.getTree(context.pageManager().getPage(TEST_ROOT), -1);
+        getSubtree(TEST_ROOT + "/navigation-1", "1");
+        getSubtree(TEST_ROOT + "/navigation-1/navigation-1-1", "3");
+        assertSame(siteTree, navigationTreeCache.getTree(context.pageManager().getPage(TEST_ROOT), -1));
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException {
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, doGet(TEST_ROOT, "-1").getStatus());
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, doGet(TEST_ROOT, "all").getStatus());
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, doGet(null, "1").getStatus());
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, doGet(TEST_ROOT + "/missing", "1").getStatus());
+        // subtrees of other sites cannot be requested
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, doGet("/content/navigation-livecopy", "1").getStatus());
+    }
+
+    private JsonNode getSubtree(String path, String depth) throws IOException {
+        MockSlingHttpServletResponse response = doGet(path, depth);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        return new ObjectMapper().readTree(response.getOutputAsString());
+    }
+
+    private MockSlingHttpServletResponse doGet(String path, String depth) throws IOException {
+        MockSlingHttpServletRequest request = context.request();
+        ImmutableMap.Builder<String, Object> parameters = ImmutableMap.builder();
+        if (path != null) {
+            parameters.put(NavigationSubtreeServlet.PARAM_PATH, path);
+        }
+        if (depth != null) {
+            parameters.put(NavigationSubtreeServlet.PARAM_DEPTH, depth);
+        }
+        request.setParameterMap(parameters.build());
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        underTest.doGet(request, response);
+        return response;
+    }
+}
@@ -35,12 +35,18 @@ import org.mockito.internal.util.reflection.Whitebox;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.internal.navigation.LocalizedRootResolver;
+import com.adobe.cq.wcm.core.components.internal.navigation.RedirectChainCache;
+import com.adobe.cq.wcm.core.components.internal.search.PageTitleIndex;
+import com.adobe.cq.wcm.core.components.internal.search.SearchConfigurationCache;
+import com.adobe.cq.wcm.core.components.internal.search.SearchResultCache;
 import com.adobe.cq.wcm.core.components.models.ListItem;
 import com.adobe.cq.wcm.core.components.testing.MockLanguageManager;
 import com.day.cq.search.Query;
 import com.day.cq.search.QueryBuilder;
 import com.day.cq.search.result.Hit;
 import com.day.cq.search.result.SearchResult;
+import com.day.cq.wcm.api.LanguageManager;
 import com.day.cq.wcm.msm.api.LiveRelationshipManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleAbstractTypeResolver;
@@ -51,6 +57,9 @@ import io.wcm.testing.mock.aem.junit.AemContext;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -91,7 +100,14 @@ public class SearchResultServletTest {
         when(mockSearchResult.getHits()).thenReturn(Arrays.asList(new Hit[]{mockHit}));
         Whitebox.setInternalState(underTest, "queryBuilder", mockQueryBuilder);
         Whitebox.setInternalState(underTest, "languageManager", new MockLanguageManager());
-        Whitebox.setInternalState(underTest, "relationshipManager", mockLiveRelationshipManager);
+        context.registerService(LanguageManager.class, new MockLanguageManager());
+        context.registerService(LiveRelationshipManager.class, mockLiveRelationshipManager);
+        Whitebox.setInternalState(underTest, "localizedRootResolver", context.registerInjectActivateService(new LocalizedRootResolver()));
+        Whitebox.setInternalState(underTest, "redirectChainCache", context.registerInjectActivateService(new RedirectChainCache()));
+        Whitebox.setInternalState(underTest, "searchResultCache", context.registerInjectActivateService(new SearchResultCache()));
+        Whitebox.setInternalState(underTest, "searchConfigurationCache",
+                context.registerInjectActivateService(new SearchConfigurationCache()));
+        Whitebox.setInternalState(underTest, "pageTitleIndex", context.registerInjectActivateService(new PageTitleIndex()));
     }
 
     @Test
@@ -132,6 +148,61 @@ public class SearchResultServletTest {
         validateResponse(context.response(), exected);
     }
 
+    @Test
+    public void testSearchResultsAreCached() throws Exception {
+        Resource resource = context.currentResource(TEST_ROOT_EN);
+        when(mockHit.getResource()).thenReturn(resource);
+        for (String fulltext : new String[]{"yod", "YOD"}) {
+            context.request().setQueryString(SearchResultServlet.PARAM_FULLTEXT + "=" + fulltext);
+            ((MockRequestPathInfo) context.request().getRequestPathInfo()).setSuffix("jcr:content/search");
+            MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+            underTest.doGet(context.request(), response);
+            validateResponse(response, ImmutableList.of(
+                    ImmutableMap.of(
+                            "url", "null/content/en/search/page.html",
+                            "title", "Page"
+                    )
+            ));
+        }
+        verify(mockQueryBuilder, times(1)).createQuery(any(), any());
+    }
+
+    @Test
+    public void testSuggestions() throws Exception {
+        context.currentResource(TEST_ROOT_EN);
+        MockSlingHttpServletRequest request = context.request();
+        request.setQueryString(SearchResultServlet.PARAM_FULLTEXT + "=pag");
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        requestPathInfo.setSelectorString(SearchResultServlet.SUGGEST_SELECTOR);
+        requestPathInfo.setSuffix("jcr:content/search");
+        underTest.doGet(request, context.response());
+        List<Map<String, String>> expected = ImmutableList.of(
+                ImmutableMap.of(
+                        "url", "null/content/en/search/page.html",
+                        "title", "Page"
+                ),
+                ImmutableMap.of(
+                        "url", "null/content/en/search/page-template.html",
+                        "title", "Page"
+                )
+        );
+
+        validateResponse(context.response(), expected);
+        verify(mockQueryBuilder, never()).createQuery(any(), any());
+    }
+
+    @Test
+    public void testSearchTermTooShort() throws Exception {
+        context.currentResource(TEST_ROOT_EN);
+        MockSlingHttpServletRequest request = context.request();
+        request.setQueryString(SearchResultServlet.PARAM_FULLTEXT + "=y");
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        requestPathInfo.setSuffix("jcr:content/search");
+        underTest.doGet(request, context.response());
+        assertEquals("[]", context.response().getOutputAsString());
+        verify(mockQueryBuilder, never()).createQuery(any(), any());
+    }
+
     private void validateResponse(MockSlingHttpServletResponse response, List<Map<String, String>> exected) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         SimpleAbstractTypeResolver resolver = new SimpleAbstractTypeResolver();
@@ -0,0 +1,219 @@
+/*~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ ~ Copyright 2018 Adobe Systems Incorporated
+ ~
+ ~ Licensed under the Apache License, Version 2.0 (the "License");
+ ~ you may not use this file except in compliance with the License.
+ ~ You may obtain a copy of the License at
+ ~
+ ~     http://www.apache.org/licenses/LICENSE-2.0
+ ~
+ ~ Unless required by applicable law or agreed to in writing, software
+ ~ distributed under the License is distributed on an "AS IS" BASIS,
+ ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ ~ See the License for the specific language governing permissions and
+ ~ limitations under the License.
+ ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
+package com.adobe.cq.wcm.core.components.internal.workflow;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.jcr.query.Query;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.apache.sling.commons.mime.MimeTypeService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.adobe.cq.wcm.core.components.context.CoreComponentTestContext;
+import com.adobe.cq.wcm.core.components.models.Image;
+import com.adobe.granite.workflow.WorkflowException;
+import com.adobe.granite.workflow.WorkflowSession;
+import com.adobe.granite.workflow.exec.WorkItem;
+import com.adobe.granite.workflow.exec.WorkflowData;
+import com.adobe.granite.workflow.metadata.MetaDataMap;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+import com.day.cq.dam.api.Rendition;
+import com.day.cq.dam.api.handler.AssetHandler;
+import com.day.cq.dam.api.handler.store.AssetStore;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImagePolicyRenditionsProcessTest {
+
+    private static final String ASSET_PATH = "/content/dam/core/images/Adobe_Systems_logo_and_wordmark.png";
+    private static final String PNG_MIME_TYPE = "image/png";
+    private static final String JPEG_MIME_TYPE = "image/jpeg";
+
+    @Rule
+    public AemContext context = CoreComponentTestContext.createContext();
+
+    @Mock
+    private AssetStore assetStore;
+
+    @Mock
+    private AssetHandler assetHandler;
+
+    @Mock
+    private MimeTypeService mimeTypeService;
+
+    @Mock
+    private WorkItem workItem;
+
+    @Mock
+    private WorkflowData workflowData;
+
+    @Mock
+    private WorkflowSession workflowSession;
+
+    @Mock
+    private MetaDataMap metaDataMap;
+
+    @Mock
+    private ResourceResolver resourceResolver;
+
+    @Mock
+    private Resource assetResource;
+
+    @Mock
+    private Asset asset;
+
+    @Mock
+    private Rendition original;
+
+    private ImagePolicyRenditionsProcess underTest;
+
+    @Before
+    public void setUp() throws IOException {
+        when(mimeTypeService.getExtension(PNG_MIME_TYPE)).thenReturn("png");
+        when(mimeTypeService.getExtension(JPEG_MIME_TYPE)).thenReturn("jpeg");
+        when(mimeTypeService.getExtension("image/tiff")).thenReturn("tiff");
+        when(assetStore.getAssetHandler(anyString())).thenReturn(assetHandler);
+        when(assetHandler.getImage(any(Rendition.class))).thenAnswer(invocation -> {
+            try (InputStream is = getClass().getResourceAsStream("/image/Adobe_Systems_logo_and_wordmark.png")) {
+                return ImageIO.read(is);
+            }
+        });
+        context.registerService(AssetStore.class, assetStore);
+        context.registerService(MimeTypeService.class, mimeTypeService);
+        underTest = context.registerInjectActivateService(new ImagePolicyRenditionsProcess());
+
+        when(workItem.getWorkflowData()).thenReturn(workflowData);
+        when(workflowData.getPayloadType()).thenReturn("JCR_PATH");
+        when(workflowData.getPayload()).thenReturn(ASSET_PATH);
+        when(workflowSession.adaptTo(ResourceResolver.class)).thenReturn(resourceResolver);
+        when(resourceResolver.getResource(ASSET_PATH)).thenReturn(assetResource);
+        when(assetResource.adaptTo(Asset.class)).thenReturn(asset);
+        when(asset.getPath()).thenReturn(ASSET_PATH);
+        when(asset.getMimeType()).thenReturn(PNG_MIME_TYPE);
+        when(asset.getOriginal()).thenReturn(original);
+        when(asset.getMetadataValue(DamConstants.TIFF_IMAGEWIDTH)).thenReturn("2000");
+    }
+
+    @Test
+    public void testCreateRenditionsFromProcessArguments() throws Exception {
+        when(metaDataMap.get("PROCESS_ARGS", String.class)).thenReturn("600, 700,invalid,-1,2000,2500");
+        Map<String, BufferedImage> renditions = captureRenditions(PNG_MIME_TYPE);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        assertEquals(2, renditions.size());
+        assertEquals(700, renditions.get("cq5dam.web.700.700.png").getWidth());
+        assertEquals(600, renditions.get("cq5dam.web.600.600.png").getWidth());
+        assertEquals(600, renditions.get("cq5dam.web.600.600.png").getHeight());
+        verify(assetHandler, times(1)).getImage(original);
+    }
+
+    @Test
+    public void testCreateRenditionsFromPolicies() throws Exception {
+        Resource policy = mockPolicy("/conf/policy_1", "600", "800");
+        Resource otherPolicy = mockPolicy("/conf/policy_2", "800", "invalid");
+        when(resourceResolver.findResources(ImagePolicyRenditionsProcess.POLICY_WIDTHS_QUERY, Query.JCR_SQL2))
+                .thenReturn(Arrays.asList(policy, otherPolicy).iterator());
+        Map<String, BufferedImage> renditions = captureRenditions(PNG_MIME_TYPE);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        assertEquals(2, renditions.size());
+        assertTrue(renditions.containsKey("cq5dam.web.600.600.png"));
+        assertTrue(renditions.containsKey("cq5dam.web.800.800.png"));
+    }
+
+    @Test
+    public void testExistingRenditionsAreSkipped() throws Exception {
+        when(metaDataMap.get("PROCESS_ARGS", String.class)).thenReturn("600,700");
+        when(asset.getRendition("cq5dam.web.700.700.png")).thenReturn(original);
+        Map<String, BufferedImage> renditions = captureRenditions(PNG_MIME_TYPE);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        assertEquals(1, renditions.size());
+        assertEquals(600, renditions.get("cq5dam.web.600.600.png").getWidth());
+    }
+
+    @Test
+    public void testTiffRenditionsAreJpegs() throws Exception {
+        when(metaDataMap.get("PROCESS_ARGS", String.class)).thenReturn("600");
+        when(asset.getMimeType()).thenReturn("image/tiff");
+        when(asset.getMetadataValue(DamConstants.TIFF_IMAGEWIDTH)).thenReturn(null);
+        Map<String, BufferedImage> renditions = captureRenditions(JPEG_MIME_TYPE);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        assertEquals(1, renditions.size());
+        assertEquals(600, renditions.get("cq5dam.web.600.600.jpeg").getWidth());
+    }
+
+    @Test
+    public void testNoRenditionsForUnsupportedPayloads() throws Exception {
+        when(metaDataMap.get("PROCESS_ARGS", String.class)).thenReturn("600");
+        when(asset.getMimeType()).thenReturn("image/gif");
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        when(asset.getMimeType()).thenReturn("application/pdf");
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        when(assetResource.adaptTo(Asset.class)).thenReturn(null);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        when(workflowData.getPayloadType()).thenReturn("JCR_UUID");
+        underTest.execute(workItem, workflowSession, metaDataMap);
+        verify(asset, never()).addRendition(anyString(), any(InputStream.class), anyString());
+    }
+
+    @Test(expected = WorkflowException.class)
+    public void testMissingResourceResolver() throws Exception {
+        when(workflowSession.adaptTo(ResourceResolver.class)).thenReturn(null);
+        underTest.execute(workItem, workflowSession, metaDataMap);
+    }
+
+    private Resource mockPolicy(String path, String... widths) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Image.PN_DESIGN_ALLOWED_RENDITION_WIDTHS, widths);
+        Resource policy = mock(Resource.class);
+        when(policy.getPath()).thenReturn(path);
+        when(policy.getValueMap()).thenReturn(new ValueMapDecorator(properties));
+        return policy;
+    }
+
+    private Map<String, BufferedImage> captureRenditions(String mimeType) {
+        Map<String, BufferedImage> renditions = new HashMap<>();
+        when(asset.addRendition(anyString(), any(InputStream.class), eq(mimeType))).thenAnswer(invocation -> {
+            renditions.put(invocation.getArgumentAt(0, String.class), ImageIO.read(invocation.getArgumentAt(1, InputStream.class)));
+            return null;
+        });
+        return renditions;
+    }
+}
@@ -73,6 +73,12 @@
          * e.g. '/path/image.coreimg{.width}.jpeg/1506620954214.jpeg'
          */
         'src': {
+        },
+        /**
+         * A low-quality placeholder (data URI) displayed until the image is loaded.
+         */
+        'placeholder': {
+            'default': EMPTY_PIXEL
         }
     };
 
@@ -178,7 +184,7 @@
                     }
                 }
             }
-            that._elements.image.setAttribute('src', EMPTY_PIXEL);
+            that._elements.image.setAttribute('src', that._properties.placeholder);
             that._elements.image.classList.add(lazyLoader.cssClass);
             that._lazyLoaderShowing = true;
         }